@@ -0,0 +1,44 @@
+package com.chromosphere.accessor.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import com.chromosphere.accessor.AccessorFactory;
+import com.chromosphere.accessor.AccessorFactoryRepository;
+import com.chromosphere.accessor.benchmark.dto.SortDestination;
+import com.chromosphere.accessor.benchmark.dto.SortSource;
+
+public class SortBenchmark {
+	public static void main(String[] args) {
+		int size = Integer.getInteger("benchmark.size", 100000);
+		int rounds = Integer.getInteger("benchmark.rounds", 5);
+		AccessorFactoryRepository repository = new AccessorFactoryRepository(SortBenchmark.class.getPackage().getName());
+		AccessorFactory<SortSource, SortDestination> accessorFactory = repository.getOrCreate(SortSource.class, SortDestination.class);
+		Random random = new Random(0);
+		List<SortDestination> destinations = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			SortSource source = new SortSource();
+			source.setId(random.nextInt(1000));
+			source.setName(Integer.toString(random.nextInt(1000)));
+			destinations.add(accessorFactory.create(source));
+		}
+		Comparator<SortDestination> lambda = Comparator.comparing(SortDestination::getName).thenComparing(SortDestination::getId);
+		Comparator<SortDestination> generated = accessorFactory.comparator("name", "id");
+		// the first rounds include compilation, the later ones are the ones to compare.
+		for (int i = 0; i < rounds; i++) {
+			long lambdaTime = sort(destinations, lambda);
+			long generatedTime = sort(destinations, generated);
+			System.out.println(String.format("round:[%d] size:[%d] lambda:[%d]ms generated:[%d]ms", i, size, lambdaTime, generatedTime));
+		}
+	}
+
+	private static <T> long sort(List<T> list, Comparator<T> comparator) {
+		List<T> copy = new ArrayList<>(list);
+		long start = System.nanoTime();
+		Collections.sort(copy, comparator);
+		return (System.nanoTime() - start) / 1000000L;
+	}
+}
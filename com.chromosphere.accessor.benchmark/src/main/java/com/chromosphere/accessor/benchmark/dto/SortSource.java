@@ -0,0 +1,22 @@
+package com.chromosphere.accessor.benchmark.dto;
+
+public class SortSource {
+	private int id;
+	private String name;
+
+	public int getId() {
+		return id;
+	}
+
+	public void setId(int id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+}
@@ -1,7 +1,10 @@
 package com.chromosphere.accessor;
 
 import java.lang.reflect.Constructor;
+import java.util.Comparator;
 import java.util.Optional;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,15 +13,33 @@ import org.slf4j.LoggerFactory;
 public final class AccessorFactory<Source, Destination> {
 	private static final Logger LOG = LoggerFactory.getLogger(AccessorFactory.class);
 
+	private final String name;
 	private final Constructor<?> destinationConstructor;
 	private final Optional<Constructor<?>> delegatorConstructor;
+	private final SortKeyGenerator sortKeyGenerator;
 
-	AccessorFactory(Constructor<?> destinationConstructor, Constructor<?> delegatorConstructor) {
+	AccessorFactory(String name, Constructor<?> destinationConstructor, Constructor<?> delegatorConstructor, SortKeyGenerator sortKeyGenerator) {
+		this.name = name;
 		this.destinationConstructor = destinationConstructor;
 		this.delegatorConstructor = Optional.ofNullable(delegatorConstructor);
+		this.sortKeyGenerator = sortKeyGenerator;
 	}
 
 	public Destination create(Source source) {
+		if (!Instrumentation.ENABLED) {
+			return create0(source);
+		}
+		Instrumentation.METRICS.created(name);
+		if (!Instrumentation.sample()) {
+			return create0(source);
+		}
+		long before = Instrumentation.allocatedBytes();
+		Destination destination = create0(source);
+		Instrumentation.METRICS.allocated(name, Instrumentation.allocatedBytes() - before);
+		return destination;
+	}
+
+	private Destination create0(Source source) {
 		Destination destination = null;
 		try {
 			if (delegatorConstructor.isPresent()) {
@@ -32,4 +53,16 @@ public final class AccessorFactory<Source, Destination> {
 		}
 		return destination;
 	}
+
+	public Comparator<Destination> comparator(String... properties) {
+		return (Comparator<Destination>) sortKeyGenerator.comparator(properties);
+	}
+
+	public ToIntFunction<Destination> intKey(String property) {
+		return (ToIntFunction<Destination>) sortKeyGenerator.intKey(property);
+	}
+
+	public ToLongFunction<Destination> longKey(String property) {
+		return (ToLongFunction<Destination>) sortKeyGenerator.longKey(property);
+	}
 }
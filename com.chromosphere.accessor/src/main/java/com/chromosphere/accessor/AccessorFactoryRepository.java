@@ -30,7 +30,8 @@ public class AccessorFactoryRepository {
 
 	public void scan(String... packageNames) {
 		for (String packageName : packageNames) {
-
+			long start = System.nanoTime();
+			int factoryCount = 0;
 			Reflections reflections = new Reflections(packageName);
 			for (Class<?> found : reflections.getTypesAnnotatedWith(Delegator.class)) {
 				if (LOG.isDebugEnabled()) {
@@ -50,18 +51,29 @@ public class AccessorFactoryRepository {
 					if (!repository.containsKey(key)) {
 						repository.putIfAbsent(key, accessorFactory);
 					}
+					factoryCount++;
 				} catch (Exception e) {
 					LOG.error("unknown error.", e);
 				}
 			}
+			if (Instrumentation.ENABLED) {
+				Instrumentation.METRICS.scanned(packageName, System.nanoTime() - start, factoryCount);
+			}
 		}
 	}
 
 	public <Source, Destination> AccessorFactory<Source, Destination> getOrCreate(Class<?> sourceClass, Class<?> destinationClass) {
 		String[] keys = { sourceClass.getName(), destinationClass.getName() };
 		String key = String.join("-", keys);
-		if (repository.containsKey(key))
+		if (repository.containsKey(key)) {
+			if (Instrumentation.ENABLED) {
+				Instrumentation.METRICS.hit(key);
+			}
 			return (AccessorFactory<Source, Destination>) repository.get(key);
+		}
+		if (Instrumentation.ENABLED) {
+			Instrumentation.METRICS.miss(key);
+		}
 		AccessorFactoryBuilder builder = AccessorFactoryBuilder.builder();
 		builder.sourceClass(sourceClass);
 		builder.destinationClass(destinationClass);
@@ -76,6 +88,14 @@ public class AccessorFactoryRepository {
 	public <Source, Destination> AccessorFactory<Source, Destination> get(Class<?> sourceClass, Class<?> destinationClass) {
 		String[] keys = { sourceClass.getName(), destinationClass.getName() };
 		String key = String.join("-", keys);
-		return (AccessorFactory<Source, Destination>) repository.get(key);
+		AccessorFactory<?, ?> accessorFactory = repository.get(key);
+		if (Instrumentation.ENABLED) {
+			if (accessorFactory != null) {
+				Instrumentation.METRICS.hit(key);
+			} else {
+				Instrumentation.METRICS.miss(key);
+			}
+		}
+		return (AccessorFactory<Source, Destination>) accessorFactory;
 	}
 }
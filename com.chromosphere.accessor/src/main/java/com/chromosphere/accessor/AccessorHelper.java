@@ -6,6 +6,8 @@ import javassist.Modifier;
 import javassist.NotFoundException;
 
 class AccessorHelper {
+	private static final String LOCKS_NAME = AccessorLocks.class.getName();
+
 	public static boolean sameParams(CtMethod m1, CtMethod m2) {
 		CtClass[] p1;
 		CtClass[] p2;
@@ -72,15 +74,15 @@ class AccessorHelper {
 		return true;
 	}
 
-	public static String getDecolatorMethodSourceBySourceClass(CtMethod ctMethod) throws Exception {
-		return getDecolatorMethodSource("_source", ctMethod);
+	public static String getDecolatorMethodSourceBySourceClass(CtMethod ctMethod, boolean guarded) throws Exception {
+		return getDecolatorMethodSource("_source", ctMethod, guarded);
 	}
 
-	public static String getDecolatorMethodSourceByDelegatorClass(CtMethod ctMethod) throws Exception {
-		return getDecolatorMethodSource("_delegator", ctMethod);
+	public static String getDecolatorMethodSourceByDelegatorClass(CtMethod ctMethod, boolean guarded) throws Exception {
+		return getDecolatorMethodSource("_delegator", ctMethod, guarded);
 	}
 
-	private static String getDecolatorMethodSource(String delegated, CtMethod ctMethod) throws Exception {
+	private static String getDecolatorMethodSource(String delegated, CtMethod ctMethod, boolean guarded) throws Exception {
 		StringBuilder sb = new StringBuilder();
 		CtClass[] paramTypes = null;
 		CtClass[] exceptionTypes = null;
@@ -119,22 +121,93 @@ class AccessorHelper {
 			}
 		}
 		sb.append(" { ");
-		if (returnType != null && !CtClass.voidType.equals(returnType)) {
-			sb.append("return ");
-		}
-		sb.append(delegated).append(".").append(ctMethod.getName()).append("(");
+		StringBuilder call = new StringBuilder();
+		call.append(delegated).append(".").append(ctMethod.getName()).append("(");
 		if (paramTypes != null && paramTypes.length > 0) {
 			for (int x = 0; x < paramTypes.length; x++) {
 				if (x > 0)
-					sb.append(", ");
-				sb.append("p" + x);
+					call.append(", ");
+				call.append("p" + x);
+			}
+		}
+		call.append(")");
+		boolean hasReturn = returnType != null && !CtClass.voidType.equals(returnType);
+		if (!guarded) {
+			if (hasReturn) {
+				sb.append("return ");
+			}
+			sb.append(call).append(";");
+		} else if (getPropertyName(ctMethod) != null) {
+			// optimistic read, falls back to the read lock when a writer got in between.
+			// only getters take this path, anything that changes state could run twice here.
+			// an inconsistent read may throw, so a failure only counts while the stamp is still valid.
+			sb.append("java.util.concurrent.locks.StampedLock lock = _lock; ");
+			sb.append("long stamp = lock.tryOptimisticRead(); ");
+			sb.append(returnType.getName()).append(" r = ").append(getDefaultValue(returnType)).append("; ");
+			sb.append("boolean valid = false; ");
+			sb.append("try { r = ").append(call).append("; valid = lock.validate(stamp); } ");
+			sb.append("catch (Throwable t1) { if (lock.validate(stamp)) throw t1; } ");
+			sb.append("if (!valid) { ");
+			sb.append("stamp = ").append(LOCKS_NAME).append(".readLock(lock); ");
+			sb.append("try { r = ").append(call).append("; } catch (Throwable t2) { ").append(LOCKS_NAME).append(".unlockRead(lock, stamp); throw t2; } ");
+			sb.append(LOCKS_NAME).append(".unlockRead(lock, stamp); ");
+			sb.append("} ");
+			sb.append("return r;");
+		} else {
+			sb.append("java.util.concurrent.locks.StampedLock lock = _lock; ");
+			sb.append("long stamp = ").append(LOCKS_NAME).append(".writeLock(lock); ");
+			if (hasReturn) {
+				sb.append(returnType.getName()).append(" r; ");
+				sb.append("try { r = ").append(call).append("; } ");
+			} else {
+				sb.append("try { ").append(call).append("; } ");
+			}
+			sb.append("catch (Throwable t) { ").append(LOCKS_NAME).append(".unlockWrite(lock, stamp); throw t; } ");
+			sb.append(LOCKS_NAME).append(".unlockWrite(lock, stamp);");
+			if (hasReturn) {
+				sb.append(" return r;");
 			}
 		}
-		sb.append(");");
 		sb.append(" }");
 		return sb.toString();
 	}
 
+	private static String getDefaultValue(CtClass type) {
+		if (!type.isPrimitive())
+			return "null";
+		if (CtClass.booleanType.equals(type))
+			return "false";
+		return "(" + type.getName() + ") 0";
+	}
+
+	public static String getPropertyName(CtMethod ctMethod) throws Exception {
+		String name = ctMethod.getName();
+		CtClass returnType = ctMethod.getReturnType();
+		if (ctMethod.getParameterTypes().length > 0 || CtClass.voidType.equals(returnType))
+			return null;
+		String propertyName = null;
+		if (name.startsWith("get") && name.length() > 3) {
+			propertyName = name.substring(3);
+		} else if (name.startsWith("is") && name.length() > 2 && CtClass.booleanType.equals(returnType)) {
+			propertyName = name.substring(2);
+		}
+		if (propertyName == null)
+			return null;
+		if (propertyName.length() > 1 && Character.isUpperCase(propertyName.charAt(1)))
+			return propertyName;
+		return Character.toLowerCase(propertyName.charAt(0)) + propertyName.substring(1);
+	}
+
+	public static Class<?> getReturnType(Class<?> clazz, String methodName) throws NoSuchMethodException {
+		for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+			try {
+				return c.getDeclaredMethod(methodName).getReturnType();
+			} catch (NoSuchMethodException e) {
+			}
+		}
+		throw new NoSuchMethodException(methodName);
+	}
+
 	public static String getMethodLongName(CtMethod ctMethod) {
 		StringBuilder sb = new StringBuilder();
 		try {
@@ -0,0 +1,103 @@
+package com.chromosphere.accessor;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+public final class AccessorLocks {
+	// StampedLock is not reentrant and unrelated sources can share one of the 256 stripes.
+	// each thread records the stripes it holds, so that a guarded call nested in another one on the same stripe
+	// runs under the outer lock instead of waiting for itself.
+	private static final int STRIPES = 256;
+	private static final byte READ = 1;
+	private static final byte WRITE = 2;
+	private static final Stripe[] LOCKS = new Stripe[STRIPES];
+	// no lambda here, javassist reads this class when it compiles the generated accessors.
+	private static final ThreadLocal<byte[]> HELD = new ThreadLocal<byte[]>() {
+		@Override
+		protected byte[] initialValue() {
+			return new byte[STRIPES];
+		}
+	};
+	static {
+		for (int i = 0; i < STRIPES; i++) {
+			LOCKS[i] = new Stripe(i);
+		}
+	}
+
+	private AccessorLocks() {
+	}
+
+	public static StampedLock of(Object source) {
+		int h = System.identityHashCode(source);
+		h ^= (h >>> 16);
+		return LOCKS[h & (STRIPES - 1)];
+	}
+
+	// returns 0 when this thread already holds the stripe, the matching unlock then does nothing.
+	public static long readLock(StampedLock lock) {
+		byte[] held = HELD.get();
+		int index = ((Stripe) lock).index;
+		if (held[index] != 0)
+			return 0L;
+		long stamp = lock.readLock();
+		held[index] = READ;
+		return stamp;
+	}
+
+	public static void unlockRead(StampedLock lock, long stamp) {
+		if (stamp == 0L)
+			return;
+		HELD.get()[((Stripe) lock).index] = 0;
+		lock.unlockRead(stamp);
+	}
+
+	public static long writeLock(StampedLock lock) {
+		byte[] held = HELD.get();
+		int index = ((Stripe) lock).index;
+		if (held[index] == WRITE)
+			return 0L;
+		if (held[index] == READ)
+			throw new IllegalStateException("a guarded write is nested in a guarded read on the same lock stripe.");
+		long stamp = lock.writeLock();
+		held[index] = WRITE;
+		return stamp;
+	}
+
+	public static void unlockWrite(StampedLock lock, long stamp) {
+		if (stamp == 0L)
+			return;
+		HELD.get()[((Stripe) lock).index] = 0;
+		lock.unlockWrite(stamp);
+	}
+
+	public static <Destination, R> R read(Destination destination, Function<? super Destination, R> reader) {
+		StampedLock lock = of(((Accessor<?>) destination)._getSource());
+		long stamp = lock.tryOptimisticRead();
+		try {
+			R result = reader.apply(destination);
+			if (lock.validate(stamp)) {
+				return result;
+			}
+		} catch (RuntimeException | Error e) {
+			// an inconsistent read may throw, it is only real while the stamp is still valid.
+			if (lock.validate(stamp)) {
+				throw e;
+			}
+		}
+		stamp = readLock(lock);
+		try {
+			return reader.apply(destination);
+		} finally {
+			unlockRead(lock, stamp);
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static final class Stripe extends StampedLock {
+		private final int index;
+
+		private Stripe(int index) {
+			this.index = index;
+		}
+	}
+}
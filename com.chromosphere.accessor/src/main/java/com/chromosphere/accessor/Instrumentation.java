@@ -0,0 +1,54 @@
+package com.chromosphere.accessor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.chromosphere.accessor.metrics.AccessorMetrics;
+import com.chromosphere.accessor.metrics.JmxAccessorMetrics;
+
+final class Instrumentation {
+	private static final Logger LOG = LoggerFactory.getLogger(Instrumentation.class);
+
+	static final boolean ENABLED = Boolean.getBoolean("com.chromosphere.accessor.metrics");
+	static final int SAMPLING = Integer.getInteger("com.chromosphere.accessor.metrics.sampling", 0);
+	static final AccessorMetrics METRICS = ENABLED ? load() : null;
+
+	private static final ThreadMXBean THREAD_MX_BEAN = ENABLED ? ManagementFactory.getThreadMXBean() : null;
+	private static final boolean ALLOCATION_SUPPORTED = ENABLED && SAMPLING > 0 && isAllocationSupported();
+
+	private Instrumentation() {
+	}
+
+	private static AccessorMetrics load() {
+		Iterator<AccessorMetrics> iterator = ServiceLoader.load(AccessorMetrics.class).iterator();
+		if (iterator.hasNext()) {
+			AccessorMetrics metrics = iterator.next();
+			LOG.debug("metrics:[{}]", metrics.getClass().getName());
+			return metrics;
+		}
+		LOG.debug("metrics:[{}]", JmxAccessorMetrics.class.getName());
+		return new JmxAccessorMetrics();
+	}
+
+	private static boolean isAllocationSupported() {
+		if (!(THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean)) {
+			return false;
+		}
+		com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+		return threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled();
+	}
+
+	static boolean sample() {
+		return ALLOCATION_SUPPORTED && ThreadLocalRandom.current().nextInt(SAMPLING) == 0;
+	}
+
+	static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
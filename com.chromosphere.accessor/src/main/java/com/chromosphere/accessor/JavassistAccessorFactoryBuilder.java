@@ -22,22 +22,28 @@ import javassist.LoaderClassPath;
 class JavassistAccessorFactoryBuilder extends AccessorFactoryBuilder {
 	private static final Logger LOG = LoggerFactory.getLogger(JavassistAccessorFactoryBuilder.class);
 
-	private static final ClassPool CLASS_POOL = ClassPool.getDefault();
+	static final ClassPool CLASS_POOL = ClassPool.getDefault();
 	private static final AtomicInteger counter = new AtomicInteger();
 
 	private static final String INTERFACE_NAME;
+	private static final String LOCKS_NAME;
 	static {
 		CLASS_POOL.appendClassPath(new LoaderClassPath(Thread.currentThread().getContextClassLoader()));
 		INTERFACE_NAME = Accessor.class.getName();
+		LOCKS_NAME = AccessorLocks.class.getName();
 	}
 
 	private Class<?> sourceClass;
+	private Class<?> destinationClass;
 	private Class<?> delegatorClass;
 	private String sourceClassName;
 	private String destinationClassName;
 	private String accessorClassName;
 	private String delegatorClassName;
 	private Delegator delegator = null;
+	private final Map<String, JavassistSortKeyGenerator.Getter> getters = new HashMap<>();
+	private SortKeyGenerator sortKeyGenerator;
+	private long bytecodeSize = 0L;
 
 	JavassistAccessorFactoryBuilder() {
 	}
@@ -51,6 +57,7 @@ class JavassistAccessorFactoryBuilder extends AccessorFactoryBuilder {
 
 	@Override
 	AccessorFactoryBuilder destinationClass(Class<?> destinationClass) {
+		this.destinationClass = destinationClass;
 		this.destinationClassName = destinationClass.getName();
 		this.accessorClassName = destinationClassName + "_$$_" + counter.getAndIncrement();
 		return this;
@@ -89,29 +96,41 @@ class JavassistAccessorFactoryBuilder extends AccessorFactoryBuilder {
 			LOG.error("accessorClassName is empty.");
 			throw new RuntimeException("accessorClassName is empty.");
 		}
+		long start = System.nanoTime();
 		Constructor<?> destinationConstructor = null;
 		Constructor<?> delegatorConstructor = null;
-		if (delegatorClassName != null && delegatorClassName.length() > 0) {
-			if (delegator == null) {
-				LOG.error("delegator is null.");
-				throw new RuntimeException("delegator is null.");
-			}
-			try {
-				destinationConstructor = createConstructorWithDelegator();
-				delegatorConstructor = delegatorClass.getConstructor(sourceClass);
-			} catch (Exception e) {
-				LOG.error("unknown error.", e);
-				throw new RuntimeException(e);
-			}
-		} else {
-			try {
-				destinationConstructor = createConstructorWithoutDelegator();
-			} catch (Exception e) {
-				LOG.error("unknown error.", e);
-				throw new RuntimeException(e);
+		// the class pool is not thread safe, every use of it holds its monitor.
+		synchronized (CLASS_POOL) {
+			if (delegatorClassName != null && delegatorClassName.length() > 0) {
+				if (delegator == null) {
+					LOG.error("delegator is null.");
+					throw new RuntimeException("delegator is null.");
+				}
+				try {
+					destinationConstructor = createConstructorWithDelegator();
+					delegatorConstructor = delegatorClass.getConstructor(sourceClass);
+				} catch (Exception e) {
+					LOG.error("unknown error.", e);
+					throw new RuntimeException(e);
+				}
+			} else {
+				try {
+					destinationConstructor = createConstructorWithoutDelegator();
+				} catch (Exception e) {
+					LOG.error("unknown error.", e);
+					throw new RuntimeException(e);
+				}
 			}
 		}
-		return (AccessorFactory<Source, Destination>) new AccessorFactory<>(destinationConstructor, delegatorConstructor);
+		if (Instrumentation.ENABLED) {
+			Instrumentation.METRICS.generated(getFactoryName(), System.nanoTime() - start, 1, bytecodeSize);
+		}
+		return (AccessorFactory<Source, Destination>) new AccessorFactory<>(getFactoryName(), destinationConstructor, delegatorConstructor, sortKeyGenerator);
+	}
+
+	private String getFactoryName() {
+		String[] keys = { sourceClassName, destinationClassName };
+		return String.join("-", keys);
 	}
 
 	private Constructor<?> createConstructorWithDelegator() throws Exception {
@@ -140,7 +159,15 @@ class JavassistAccessorFactoryBuilder extends AccessorFactoryBuilder {
 		String shortName = accessorClassName.substring(accessorClassName.lastIndexOf(".") + 1);
 		accessorCtClass.addField(CtField.make(String.format("private final %s _source;", sourceClassName), accessorCtClass));
 		accessorCtClass.addField(CtField.make(String.format("private final %s _delegator;", delegatorClassName), accessorCtClass));
-		accessorCtClass.addConstructor(CtNewConstructor.make(String.format("public %s(%s _source, %s _delegator) {this._source = _source;this._delegator = _delegator;}", shortName, sourceClassName, delegatorClassName), accessorCtClass));
+		// package-private, for the sort key classes generated next to this one.
+		accessorCtClass.addMethod(CtNewMethod.make(String.format("%s _source() {return this._source;}", sourceClassName), accessorCtClass));
+		accessorCtClass.addMethod(CtNewMethod.make(String.format("%s _delegator() {return this._delegator;}", delegatorClassName), accessorCtClass));
+		if (delegator.concurrent()) {
+			accessorCtClass.addField(CtField.make("final java.util.concurrent.locks.StampedLock _lock;", accessorCtClass));
+			accessorCtClass.addConstructor(CtNewConstructor.make(String.format("public %s(%s _source, %s _delegator) {this._source = _source;this._delegator = _delegator;this._lock = %s.of(_source);}", shortName, sourceClassName, delegatorClassName, LOCKS_NAME), accessorCtClass));
+		} else {
+			accessorCtClass.addConstructor(CtNewConstructor.make(String.format("public %s(%s _source, %s _delegator) {this._source = _source;this._delegator = _delegator;}", shortName, sourceClassName, delegatorClassName), accessorCtClass));
+		}
 		if (!"".equals(delegator.initialize())) {
 			CtMethod initializeCtMethod = CtNewMethod.make(String.format("public void _initialize() {_delegator.%s();}", delegator.initialize()), accessorCtClass);
 			accessorCtClass.addMethod(initializeCtMethod);
@@ -164,26 +191,33 @@ class JavassistAccessorFactoryBuilder extends AccessorFactoryBuilder {
 			if (delegatorClassMethods.containsKey(key)) {
 				CtMethod ctMethod = delegatorClassMethods.get(key);
 				if (AccessorHelper.checkWriteScope(destinationCtMethod.getModifiers()) && AccessorHelper.sameParams(destinationCtMethod, ctMethod) && destinationCtMethod.getReturnType().equals(ctMethod.getReturnType())) {
-					String src = AccessorHelper.getDecolatorMethodSourceByDelegatorClass(destinationCtMethod);
+					String src = AccessorHelper.getDecolatorMethodSourceByDelegatorClass(destinationCtMethod, delegator.concurrent());
 					if (LOG.isDebugEnabled()) {
 						LOG.debug("add method:[{}]", src);
 					}
 					CtMethod accessorCtMethod = CtNewMethod.make(src, accessorCtClass);
 					accessorCtClass.addMethod(accessorCtMethod);
+					addGetter("_delegator", destinationCtMethod);
 				}
 			} else if (sourceClassMethods.containsKey(key)) {
 				CtMethod ctMethod = sourceClassMethods.get(key);
 				if (AccessorHelper.checkWriteScope(destinationCtMethod.getModifiers()) && AccessorHelper.sameParams(destinationCtMethod, ctMethod) && destinationCtMethod.getReturnType().equals(ctMethod.getReturnType())) {
-					String src = AccessorHelper.getDecolatorMethodSourceBySourceClass(destinationCtMethod);
+					String src = AccessorHelper.getDecolatorMethodSourceBySourceClass(destinationCtMethod, delegator.concurrent());
 					if (LOG.isDebugEnabled()) {
 						LOG.debug("add method:[{}]", src);
 					}
 					CtMethod accessorCtMethod = CtNewMethod.make(src, accessorCtClass);
 					accessorCtClass.addMethod(accessorCtMethod);
+					addGetter("_source", destinationCtMethod);
 				}
 			}
 		}
-		return accessorCtClass.toClass().getConstructor(sourceClass, delegatorClass);
+		if (Instrumentation.ENABLED) {
+			bytecodeSize = accessorCtClass.toBytecode().length;
+		}
+		Class<?> accessorClass = accessorCtClass.toClass();
+		sortKeyGenerator = new JavassistSortKeyGenerator(getFactoryName(), accessorClass, getters);
+		return accessorClass.getConstructor(sourceClass, delegatorClass);
 	}
 
 	private Constructor<?> createConstructorWithoutDelegator() throws Exception {
@@ -202,6 +236,8 @@ class JavassistAccessorFactoryBuilder extends AccessorFactoryBuilder {
 		accessorCtClass.addInterface(CLASS_POOL.get(INTERFACE_NAME));
 		String shortName = accessorClassName.substring(accessorClassName.lastIndexOf(".") + 1);
 		accessorCtClass.addField(CtField.make(String.format("private final %s _source;", sourceClassName), accessorCtClass));
+		// package-private, for the sort key classes generated next to this one.
+		accessorCtClass.addMethod(CtNewMethod.make(String.format("%s _source() {return this._source;}", sourceClassName), accessorCtClass));
 		accessorCtClass.addConstructor(CtNewConstructor.make(String.format("public %s(%s _source) {this._source = _source;}", shortName, sourceClassName), accessorCtClass));
 
 		CtMethod getSourceCtMethod = CtNewMethod.make("public Object _getSource() {return this._source;}", accessorCtClass);
@@ -212,15 +248,35 @@ class JavassistAccessorFactoryBuilder extends AccessorFactoryBuilder {
 			if (sourceClassMethods.containsKey(key)) {
 				CtMethod ctMethod = sourceClassMethods.get(key);
 				if (AccessorHelper.checkWriteScope(destinationCtMethod.getModifiers()) && AccessorHelper.sameParams(destinationCtMethod, ctMethod) && destinationCtMethod.getReturnType().equals(ctMethod.getReturnType())) {
-					String src = AccessorHelper.getDecolatorMethodSourceBySourceClass(destinationCtMethod);
+					String src = AccessorHelper.getDecolatorMethodSourceBySourceClass(destinationCtMethod, false);
 					if (LOG.isDebugEnabled()) {
 						LOG.debug("add method:[{}]", src);
 					}
 					CtMethod accessorCtMethod = CtNewMethod.make(src, accessorCtClass);
 					accessorCtClass.addMethod(accessorCtMethod);
+					addGetter("_source", destinationCtMethod);
 				}
 			}
 		}
-		return accessorCtClass.toClass().getConstructor(sourceClass);
+		if (Instrumentation.ENABLED) {
+			bytecodeSize = accessorCtClass.toBytecode().length;
+		}
+		Class<?> accessorClass = accessorCtClass.toClass();
+		sortKeyGenerator = new JavassistSortKeyGenerator(getFactoryName(), accessorClass, getters);
+		return accessorClass.getConstructor(sourceClass);
+	}
+
+	private void addGetter(String delegated, CtMethod destinationCtMethod) throws Exception {
+		String propertyName = AccessorHelper.getPropertyName(destinationCtMethod);
+		if (propertyName == null) {
+			return;
+		}
+		Class<?> type = AccessorHelper.getReturnType(destinationClass, destinationCtMethod.getName());
+		if (delegator != null && delegator.concurrent()) {
+			// goes through the guarded accessor method rather than the bare field.
+			getters.put(propertyName, new JavassistSortKeyGenerator.Getter(String.format("%s()", destinationCtMethod.getName()), type));
+		} else {
+			getters.put(propertyName, new JavassistSortKeyGenerator.Getter(String.format("%s().%s()", delegated, destinationCtMethod.getName()), type));
+		}
 	}
 }
@@ -0,0 +1,172 @@
+package com.chromosphere.accessor;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+
+class JavassistSortKeyGenerator extends SortKeyGenerator {
+	private static final Logger LOG = LoggerFactory.getLogger(JavassistSortKeyGenerator.class);
+
+	private static final ClassPool CLASS_POOL = JavassistAccessorFactoryBuilder.CLASS_POOL;
+	private static final AtomicInteger counter = new AtomicInteger();
+
+	private final String factoryName;
+	private final Class<?> accessorClass;
+	private final String accessorClassName;
+	private final Map<String, Getter> getters;
+	private final ConcurrentMap<String, Object> generated = new ConcurrentHashMap<>();
+
+	JavassistSortKeyGenerator(String factoryName, Class<?> accessorClass, Map<String, Getter> getters) {
+		this.factoryName = factoryName;
+		this.accessorClass = accessorClass;
+		this.accessorClassName = accessorClass.getName();
+		this.getters = getters;
+	}
+
+	@Override
+	Comparator<?> comparator(String... properties) {
+		if (properties == null || properties.length == 0) {
+			LOG.error("properties is empty.");
+			throw new IllegalArgumentException("properties is empty.");
+		}
+		String key = "comparator:" + String.join(",", properties);
+		return (Comparator<?>) getOrGenerate(key, "comparator", "java.util.Comparator", () -> getComparatorMethodSource(properties));
+	}
+
+	@Override
+	ToIntFunction<?> intKey(String property) {
+		Getter getter = getGetter(property);
+		Class<?> type = getter.type;
+		if (type != int.class && type != short.class && type != char.class && type != byte.class) {
+			LOG.error("property is not int compatible:[{}]", property);
+			throw new IllegalArgumentException("property is not int compatible:[" + property + "]");
+		}
+		String src = String.format("public int applyAsInt(Object o) {return (int) ((%s) o).%s;}", accessorClassName, getter.expression);
+		return (ToIntFunction<?>) getOrGenerate("intKey:" + property, "intKey", "java.util.function.ToIntFunction", () -> src);
+	}
+
+	@Override
+	ToLongFunction<?> longKey(String property) {
+		Getter getter = getGetter(property);
+		Class<?> type = getter.type;
+		if (type != long.class && type != int.class && type != short.class && type != char.class && type != byte.class) {
+			LOG.error("property is not long compatible:[{}]", property);
+			throw new IllegalArgumentException("property is not long compatible:[" + property + "]");
+		}
+		String src = String.format("public long applyAsLong(Object o) {return (long) ((%s) o).%s;}", accessorClassName, getter.expression);
+		return (ToLongFunction<?>) getOrGenerate("longKey:" + property, "longKey", "java.util.function.ToLongFunction", () -> src);
+	}
+
+	private Getter getGetter(String property) {
+		Getter getter = getters.get(property);
+		if (getter == null) {
+			LOG.error("unknown property:[{}]", property);
+			throw new IllegalArgumentException("unknown property:[" + property + "]");
+		}
+		return getter;
+	}
+
+	private String getComparatorMethodSource(String[] properties) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("public int compare(Object o1, Object o2) { ");
+		sb.append(String.format("%s a1 = (%s) o1; ", accessorClassName, accessorClassName));
+		sb.append(String.format("%s a2 = (%s) o2; ", accessorClassName, accessorClassName));
+		for (int i = 0; i < properties.length; i++) {
+			Getter getter = getGetter(properties[i]);
+			Class<?> type = getter.type;
+			String x = "x" + i;
+			String y = "y" + i;
+			if (type.isPrimitive()) {
+				sb.append(String.format("%s %s = a1.%s; ", type.getName(), x, getter.expression));
+				sb.append(String.format("%s %s = a2.%s; ", type.getName(), y, getter.expression));
+				if (type == boolean.class) {
+					sb.append(String.format("if (%s != %s) { if (%s) return 1; return -1; } ", x, y, x));
+				} else if (type == double.class || type == float.class) {
+					String wrapper = type == double.class ? "java.lang.Double" : "java.lang.Float";
+					sb.append(String.format("int c%d = %s.compare(%s, %s); if (c%d != 0) return c%d; ", i, wrapper, x, y, i, i));
+				} else {
+					sb.append(String.format("if (%s < %s) return -1; if (%s > %s) return 1; ", x, y, x, y));
+				}
+			} else if (Comparable.class.isAssignableFrom(type)) {
+				sb.append(String.format("Object %s = a1.%s; ", x, getter.expression));
+				sb.append(String.format("Object %s = a2.%s; ", y, getter.expression));
+				sb.append(String.format("if (%s != %s) { ", x, y));
+				sb.append(String.format("if (%s == null) return -1; if (%s == null) return 1; ", x, y));
+				sb.append(String.format("int c%d = ((java.lang.Comparable) %s).compareTo(%s); if (c%d != 0) return c%d; ", i, x, y, i, i));
+				sb.append("} ");
+			} else {
+				LOG.error("property is not comparable:[{}]", properties[i]);
+				throw new IllegalArgumentException("property is not comparable:[" + properties[i] + "]");
+			}
+		}
+		sb.append("return 0; }");
+		return sb.toString();
+	}
+
+	private Object getOrGenerate(String key, String kind, String interfaceName, Supplier<String> src) {
+		Object instance = generated.get(key);
+		if (instance != null) {
+			return instance;
+		}
+		// same monitor as JavassistAccessorFactoryBuilder, the class pool is not thread safe.
+		synchronized (CLASS_POOL) {
+			instance = generated.get(key);
+			if (instance == null) {
+				instance = generate(kind, interfaceName, src.get());
+				generated.put(key, instance);
+			}
+			return instance;
+		}
+	}
+
+	private Object generate(String kind, String interfaceName, String src) {
+		String className = accessorClassName + "_$$_" + kind + "_" + counter.getAndIncrement();
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("className:[{}]", className);
+			LOG.debug("add method:[{}]", src);
+		}
+		long start = System.nanoTime();
+		try {
+			CtClass ctClass = CLASS_POOL.makeClass(className);
+			// added on the class file so that the JDK interface is never parsed by javassist.
+			ctClass.getClassFile().addInterface(interfaceName);
+			ctClass.addConstructor(CtNewConstructor.defaultConstructor(ctClass));
+			CtMethod ctMethod = CtNewMethod.make(src, ctClass);
+			ctClass.addMethod(ctMethod);
+			long bytecodeSize = Instrumentation.ENABLED ? ctClass.toBytecode().length : 0L;
+			// same loader as the accessor class, so that its package-private accessors are reachable.
+			Object instance = ctClass.toClass(accessorClass.getClassLoader(), accessorClass.getProtectionDomain()).newInstance();
+			if (Instrumentation.ENABLED) {
+				Instrumentation.METRICS.generated(factoryName, System.nanoTime() - start, 1, bytecodeSize);
+			}
+			return instance;
+		} catch (Exception e) {
+			LOG.error("unknown error.", e);
+			throw new RuntimeException(e);
+		}
+	}
+
+	static final class Getter {
+		private final String expression;
+		private final Class<?> type;
+
+		Getter(String expression, Class<?> type) {
+			this.expression = expression;
+			this.type = type;
+		}
+	}
+}
@@ -0,0 +1,13 @@
+package com.chromosphere.accessor;
+
+import java.util.Comparator;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+abstract class SortKeyGenerator {
+	abstract Comparator<?> comparator(String... properties);
+
+	abstract ToIntFunction<?> intKey(String property);
+
+	abstract ToLongFunction<?> longKey(String property);
+}
@@ -19,4 +19,7 @@ public @interface Delegator {
 	String initialize() default "";
 
 	String terminate() default "";
+
+	// guards every accessor call with a striped StampedLock (see AccessorLocks). getters read optimistically, everything else takes the write lock.
+	boolean concurrent() default false;
 }
@@ -0,0 +1,77 @@
+package com.chromosphere.accessor.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class AccessorFactoryStats implements AccessorFactoryStatsMBean {
+	private final LongAdder generationTimeNanos = new LongAdder();
+	private final LongAdder generatedClassCount = new LongAdder();
+	private final LongAdder bytecodeSize = new LongAdder();
+	private final LongAdder createCount = new LongAdder();
+	private final LongAdder sampledCreateCount = new LongAdder();
+	private final LongAdder sampledAllocatedBytes = new LongAdder();
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+
+	void generated(long nanos, int classCount, long size) {
+		generationTimeNanos.add(nanos);
+		generatedClassCount.add(classCount);
+		bytecodeSize.add(size);
+	}
+
+	void created() {
+		createCount.increment();
+	}
+
+	void allocated(long bytes) {
+		sampledCreateCount.increment();
+		sampledAllocatedBytes.add(bytes);
+	}
+
+	void hit() {
+		hitCount.increment();
+	}
+
+	void miss() {
+		missCount.increment();
+	}
+
+	@Override
+	public long getGenerationTimeNanos() {
+		return generationTimeNanos.sum();
+	}
+
+	@Override
+	public long getGeneratedClassCount() {
+		return generatedClassCount.sum();
+	}
+
+	@Override
+	public long getBytecodeSize() {
+		return bytecodeSize.sum();
+	}
+
+	@Override
+	public long getCreateCount() {
+		return createCount.sum();
+	}
+
+	@Override
+	public long getSampledCreateCount() {
+		return sampledCreateCount.sum();
+	}
+
+	@Override
+	public long getSampledAllocatedBytes() {
+		return sampledAllocatedBytes.sum();
+	}
+
+	@Override
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	@Override
+	public long getMissCount() {
+		return missCount.sum();
+	}
+}
@@ -0,0 +1,19 @@
+package com.chromosphere.accessor.metrics;
+
+public interface AccessorFactoryStatsMBean {
+	long getGenerationTimeNanos();
+
+	long getGeneratedClassCount();
+
+	long getBytecodeSize();
+
+	long getCreateCount();
+
+	long getSampledCreateCount();
+
+	long getSampledAllocatedBytes();
+
+	long getHitCount();
+
+	long getMissCount();
+}
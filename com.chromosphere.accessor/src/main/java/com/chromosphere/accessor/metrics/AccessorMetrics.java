@@ -0,0 +1,15 @@
+package com.chromosphere.accessor.metrics;
+
+public interface AccessorMetrics {
+	void generated(String factoryName, long nanos, int classCount, long bytecodeSize);
+
+	void created(String factoryName);
+
+	void allocated(String factoryName, long bytes);
+
+	void hit(String factoryName);
+
+	void miss(String factoryName);
+
+	void scanned(String packageName, long nanos, int factoryCount);
+}
@@ -0,0 +1,68 @@
+package com.chromosphere.accessor.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class JmxAccessorMetrics implements AccessorMetrics {
+	private static final Logger LOG = LoggerFactory.getLogger(JmxAccessorMetrics.class);
+
+	private static final String DOMAIN = "com.chromosphere.accessor";
+
+	private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+	private final ConcurrentMap<String, AccessorFactoryStats> factories = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, PackageScanStats> packages = new ConcurrentHashMap<>();
+
+	@Override
+	public void generated(String factoryName, long nanos, int classCount, long bytecodeSize) {
+		factory(factoryName).generated(nanos, classCount, bytecodeSize);
+	}
+
+	@Override
+	public void created(String factoryName) {
+		factory(factoryName).created();
+	}
+
+	@Override
+	public void allocated(String factoryName, long bytes) {
+		factory(factoryName).allocated(bytes);
+	}
+
+	@Override
+	public void hit(String factoryName) {
+		factory(factoryName).hit();
+	}
+
+	@Override
+	public void miss(String factoryName) {
+		factory(factoryName).miss();
+	}
+
+	@Override
+	public void scanned(String packageName, long nanos, int factoryCount) {
+		packages.computeIfAbsent(packageName, k -> register(new PackageScanStats(), "AccessorFactoryRepository", k)).scanned(nanos, factoryCount);
+	}
+
+	private AccessorFactoryStats factory(String factoryName) {
+		AccessorFactoryStats stats = factories.get(factoryName);
+		if (stats != null) {
+			return stats;
+		}
+		return factories.computeIfAbsent(factoryName, k -> register(new AccessorFactoryStats(), "AccessorFactory", k));
+	}
+
+	private <T> T register(T stats, String type, String name) {
+		try {
+			mBeanServer.registerMBean(stats, new ObjectName(String.format("%s:type=%s,name=%s", DOMAIN, type, ObjectName.quote(name))));
+		} catch (Exception e) {
+			LOG.warn("could not register mbean. name:[{}]", name, e);
+		}
+		return stats;
+	}
+}
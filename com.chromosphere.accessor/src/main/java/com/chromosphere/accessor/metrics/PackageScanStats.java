@@ -0,0 +1,37 @@
+package com.chromosphere.accessor.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class PackageScanStats implements PackageScanStatsMBean {
+	private final LongAdder scanCount = new LongAdder();
+	private final LongAdder scanTimeNanos = new LongAdder();
+	private final LongAdder factoryCount = new LongAdder();
+	private volatile long lastScanTimeNanos;
+
+	void scanned(long nanos, int factories) {
+		scanCount.increment();
+		scanTimeNanos.add(nanos);
+		factoryCount.add(factories);
+		lastScanTimeNanos = nanos;
+	}
+
+	@Override
+	public long getScanCount() {
+		return scanCount.sum();
+	}
+
+	@Override
+	public long getScanTimeNanos() {
+		return scanTimeNanos.sum();
+	}
+
+	@Override
+	public long getLastScanTimeNanos() {
+		return lastScanTimeNanos;
+	}
+
+	@Override
+	public long getFactoryCount() {
+		return factoryCount.sum();
+	}
+}
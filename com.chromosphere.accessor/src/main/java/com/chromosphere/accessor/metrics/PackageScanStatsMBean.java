@@ -0,0 +1,11 @@
+package com.chromosphere.accessor.metrics;
+
+public interface PackageScanStatsMBean {
+	long getScanCount();
+
+	long getScanTimeNanos();
+
+	long getLastScanTimeNanos();
+
+	long getFactoryCount();
+}
@@ -1,6 +1,20 @@
 package com.chromosphere.accessor.test;
 
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -10,10 +24,14 @@ import org.slf4j.LoggerFactory;
 import com.chromosphere.accessor.Accessor;
 import com.chromosphere.accessor.AccessorFactory;
 import com.chromosphere.accessor.AccessorFactoryRepository;
+import com.chromosphere.accessor.AccessorLocks;
+import com.chromosphere.accessor.metrics.JmxAccessorMetrics;
 import com.chromosphere.accessor.test.dto.Test00Destination;
 import com.chromosphere.accessor.test.dto.Test00Source;
 import com.chromosphere.accessor.test.dto.Test01Destination;
 import com.chromosphere.accessor.test.dto.Test01Source;
+import com.chromosphere.accessor.test.dto.Test02Destination;
+import com.chromosphere.accessor.test.dto.Test02Source;
 
 public class AccessorTest {
 	private static final Logger LOG = LoggerFactory.getLogger(AccessorTest.class);
@@ -60,4 +78,204 @@ public class AccessorTest {
 		Test01Source source2 = accessor._getSource();
 		LOG.debug("---[{}]", source2.getId());
 	}
+
+	@Test
+	public void test02() {
+		AccessorFactory<Test00Source, Test00Destination> accessorFactory = accessorFactoryRepository.getOrCreate(Test00Source.class, Test00Destination.class);
+		List<Test00Destination> destinations = new ArrayList<>();
+		destinations.add(accessorFactory.create(newTest00Source(2, "b")));
+		destinations.add(accessorFactory.create(newTest00Source(1, "b")));
+		destinations.add(accessorFactory.create(newTest00Source(1, "a")));
+		destinations.add(accessorFactory.create(newTest00Source(3, null)));
+		Collections.sort(destinations, accessorFactory.comparator("name", "id"));
+		assertNull(destinations.get(0).getName());
+		assertEquals("a", destinations.get(1).getName());
+		assertEquals(1, destinations.get(2).getId());
+		assertEquals(2, destinations.get(3).getId());
+		assertSame(accessorFactory.comparator("name", "id"), accessorFactory.comparator("name", "id"));
+		assertEquals(3, accessorFactory.intKey("id").applyAsInt(destinations.get(0)));
+		assertEquals(3L, accessorFactory.longKey("id").applyAsLong(destinations.get(0)));
+	}
+
+	@Test
+	public void test03() {
+		AccessorFactory<Test01Source, Test01Destination> accessorFactory = accessorFactoryRepository.getOrCreate(Test01Source.class, Test01Destination.class);
+		List<Test01Destination> destinations = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Test01Source source = new Test01Source();
+			source.setId(i);
+			destinations.add(accessorFactory.create(source));
+		}
+		Collections.sort(destinations, accessorFactory.comparator("id"));
+		// the delegator negates the id.
+		assertEquals(-2, destinations.get(0).getId());
+		assertEquals(0, destinations.get(2).getId());
+	}
+
+	@Test
+	public void test04() {
+		AccessorFactory<Test00Source, Test00Destination> accessorFactory = accessorFactoryRepository.getOrCreate(Test00Source.class, Test00Destination.class);
+		Random random = new Random(0);
+		List<Test00Destination> destinations = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			String name = random.nextInt(20) == 0 ? null : Integer.toString(random.nextInt(100));
+			destinations.add(accessorFactory.create(newTest00Source(random.nextInt(1000) - 500, name)));
+		}
+		Comparator<Test00Destination> reflective = Comparator.comparing(Test00Destination::getName, Comparator.nullsFirst(Comparator.<String> naturalOrder())).thenComparingInt(Test00Destination::getId);
+		Comparator<Test00Destination> generated = accessorFactory.comparator("name", "id");
+		List<Test00Destination> expected = new ArrayList<>(destinations);
+		List<Test00Destination> actual = new ArrayList<>(destinations);
+		Collections.sort(expected, reflective);
+		Collections.sort(actual, generated);
+		assertEquals(expected, actual);
+		for (int i = 0; i + 1 < destinations.size(); i++) {
+			Test00Destination d1 = destinations.get(i);
+			Test00Destination d2 = destinations.get(i + 1);
+			assertEquals(Integer.signum(reflective.compare(d1, d2)), Integer.signum(generated.compare(d1, d2)));
+			assertEquals(d1.getId(), accessorFactory.intKey("id").applyAsInt(d1));
+		}
+	}
+
+	@Test
+	public void test05() throws Exception {
+		Test02Source source = new Test02Source();
+		source.setId(0);
+		source.setName("name");
+		AccessorFactory<Test02Source, Test02Destination> accessorFactory = accessorFactoryRepository.getOrCreate(Test02Source.class, Test02Destination.class);
+		Test02Destination writer = accessorFactory.create(source);
+		Test02Destination reader = accessorFactory.create(source);
+		Thread thread = new Thread(() -> {
+			for (int i = 1; i <= 100000; i++) {
+				writer.setId(i);
+			}
+		});
+		thread.start();
+		int last = 0;
+		while (thread.isAlive()) {
+			int id = reader.getId();
+			assertTrue(id >= last);
+			last = id;
+		}
+		thread.join();
+		assertEquals(100000, reader.getId());
+		String snapshot = AccessorLocks.read(reader, d -> d.getId() + ":" + d.getName());
+		assertEquals("100000:NAME", snapshot);
+
+		// a writer flipping between null and a value must never make a guarded read throw.
+		writer.setName("a");
+		Thread flipper = new Thread(() -> {
+			for (int i = 0; i < 200000; i++) {
+				writer.setName(i % 2 == 0 ? null : "a");
+			}
+		});
+		flipper.start();
+		while (flipper.isAlive()) {
+			String name = reader.getName();
+			assertTrue(name == null || "A".equals(name));
+			int length = AccessorLocks.read(reader, d -> d.getName() == null ? 0 : d.getName().length());
+			assertTrue(length == 0 || length == 1);
+		}
+		flipper.join();
+	}
+
+	@Test(timeout = 60000)
+	public void test07() throws Exception {
+		Test02Source source = new Test02Source();
+		source.setId(0);
+		AccessorFactory<Test02Source, Test02Destination> accessorFactory = accessorFactoryRepository.getOrCreate(Test02Source.class, Test02Destination.class);
+		// a zero-arg method that is not a getter changes state, it has to run once and exclusively.
+		int threads = 4;
+		int calls = 50000;
+		Set<Integer> ids = ConcurrentHashMap.newKeySet();
+		List<Thread> workers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			Test02Destination destination = accessorFactory.create(source);
+			workers.add(new Thread(() -> {
+				for (int i = 0; i < calls; i++) {
+					ids.add(destination.nextId());
+				}
+			}));
+		}
+		for (Thread worker : workers) {
+			worker.start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		assertEquals(threads * calls, source.getId());
+		assertEquals(threads * calls, ids.size());
+
+		// a guarded call nested in another one on the same stripe runs under the outer lock.
+		Test02Destination destination = accessorFactory.create(source);
+		StampedLock lock = AccessorLocks.of(source);
+		long stamp = AccessorLocks.writeLock(lock);
+		try {
+			destination.setId(1);
+			assertEquals(1, destination.getId());
+			assertEquals(2, destination.nextId());
+		} finally {
+			AccessorLocks.unlockWrite(lock, stamp);
+		}
+		stamp = AccessorLocks.readLock(lock);
+		try {
+			assertEquals(2, destination.getId());
+			try {
+				destination.setId(3);
+				fail();
+			} catch (IllegalStateException e) {
+				// a write can not join a read on the same stripe.
+			}
+		} finally {
+			AccessorLocks.unlockRead(lock, stamp);
+		}
+		destination.setId(3);
+		assertEquals(3, destination.getId());
+	}
+
+	@Test
+	public void test06() throws Exception {
+		JmxAccessorMetrics metrics = new JmxAccessorMetrics();
+		metrics.generated("test06", 100L, 1, 512L);
+		metrics.created("test06");
+		metrics.created("test06");
+		metrics.hit("test06");
+		ObjectName name = new ObjectName("com.chromosphere.accessor:type=AccessorFactory,name=" + ObjectName.quote("test06"));
+		assertEquals(2L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CreateCount"));
+		assertEquals(512L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "BytecodeSize"));
+		assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "HitCount"));
+	}
+
+	@Test
+	public void test08() throws Exception {
+		assumeTrue(Boolean.getBoolean("com.chromosphere.accessor.metrics"));
+		MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		ObjectName scan = new ObjectName("com.chromosphere.accessor:type=AccessorFactoryRepository,name=" + ObjectName.quote("com.chromosphere.accessor"));
+		assertTrue((Long) mBeanServer.getAttribute(scan, "ScanCount") >= 1L);
+		assertTrue((Long) mBeanServer.getAttribute(scan, "FactoryCount") >= 1L);
+
+		String factoryName = Test02Source.class.getName() + "-" + Test02Destination.class.getName();
+		ObjectName factory = new ObjectName("com.chromosphere.accessor:type=AccessorFactory,name=" + ObjectName.quote(factoryName));
+		assertTrue((Long) mBeanServer.getAttribute(factory, "GeneratedClassCount") >= 1L);
+		assertTrue((Long) mBeanServer.getAttribute(factory, "BytecodeSize") > 0L);
+		long hits = (Long) mBeanServer.getAttribute(factory, "HitCount");
+		long creates = (Long) mBeanServer.getAttribute(factory, "CreateCount");
+		long sampled = (Long) mBeanServer.getAttribute(factory, "SampledCreateCount");
+		AccessorFactory<Test02Source, Test02Destination> accessorFactory = accessorFactoryRepository.getOrCreate(Test02Source.class, Test02Destination.class);
+		accessorFactory.create(new Test02Source());
+		accessorFactory.create(new Test02Source());
+		assertEquals(hits + 1, mBeanServer.getAttribute(factory, "HitCount"));
+		assertEquals(creates + 2, mBeanServer.getAttribute(factory, "CreateCount"));
+		assertTrue((Long) mBeanServer.getAttribute(factory, "SampledCreateCount") >= sampled);
+
+		long scans = (Long) mBeanServer.getAttribute(scan, "ScanCount");
+		accessorFactoryRepository.scan("com.chromosphere.accessor");
+		assertEquals(scans + 1, mBeanServer.getAttribute(scan, "ScanCount"));
+	}
+
+	private static Test00Source newTest00Source(int id, String name) {
+		Test00Source source = new Test00Source();
+		source.setId(id);
+		source.setName(name);
+		return source;
+	}
 }
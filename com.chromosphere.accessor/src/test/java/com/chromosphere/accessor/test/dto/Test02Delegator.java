@@ -0,0 +1,21 @@
+package com.chromosphere.accessor.test.dto;
+
+import com.chromosphere.accessor.annotation.Delegator;
+
+@Delegator(sourceClass = Test02Source.class, destinationClass = Test02Destination.class, concurrent = true)
+public class Test02Delegator {
+	private Test02Source source;
+
+	public Test02Delegator(Test02Source source) {
+		this.source = source;
+	}
+
+	public String getName() {
+		return source.getName() == null ? null : source.getName().toUpperCase();
+	}
+
+	public void setName(String name) {
+		source.setName(name);
+	}
+
+}
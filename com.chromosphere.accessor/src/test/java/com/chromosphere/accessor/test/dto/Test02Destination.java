@@ -0,0 +1,26 @@
+package com.chromosphere.accessor.test.dto;
+
+public class Test02Destination {
+	private int id;
+	private String name;
+
+	public int getId() {
+		return id;
+	}
+
+	public void setId(int id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public int nextId() {
+		return ++id;
+	}
+}
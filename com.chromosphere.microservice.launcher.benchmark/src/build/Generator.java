@@ -0,0 +1,72 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+public class Generator {
+	private static final String PACKAGE_NAME = "com.chromosphere.benchmark.app.generated";
+
+	public static void main(String[] args) throws IOException {
+		Path root = Paths.get(args[0]);
+		int count = Integer.parseInt(args[1]);
+		Path dir = root.resolve(PACKAGE_NAME.replace('.', '/'));
+		Files.createDirectories(dir);
+		for (int i = 0; i < count; i++) {
+			String name = String.format("Resource%03d", i);
+			Path file = dir.resolve(name + ".java");
+			byte[] bytes = source(name, i).getBytes(StandardCharsets.UTF_8);
+			// unchanged sources keep their timestamps, so the launcher's scan cache survives a rebuild.
+			if (Files.exists(file) && Arrays.equals(Files.readAllBytes(file), bytes))
+				continue;
+			Files.write(file, bytes);
+		}
+		try (Stream<Path> files = Files.list(dir)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				String fileName = file.getFileName().toString();
+				if (fileName.matches("Resource\\d+\\.java") && Integer.parseInt(fileName.replaceAll("\\D", "")) >= count)
+					Files.delete(file);
+			}
+		}
+	}
+
+	private static String source(String name, int index) {
+		String path = String.format("r%03d", index);
+		StringBuilder sb = new StringBuilder();
+		sb.append("package ").append(PACKAGE_NAME).append(";\n\n");
+		sb.append("import java.util.concurrent.ConcurrentHashMap;\n");
+		sb.append("import java.util.concurrent.ConcurrentMap;\n\n");
+		sb.append("import javax.enterprise.context.ApplicationScoped;\n");
+		sb.append("import javax.ws.rs.GET;\n");
+		sb.append("import javax.ws.rs.POST;\n");
+		sb.append("import javax.ws.rs.Path;\n");
+		sb.append("import javax.ws.rs.PathParam;\n");
+		sb.append("import javax.ws.rs.Produces;\n");
+		sb.append("import javax.ws.rs.QueryParam;\n");
+		sb.append("import javax.ws.rs.core.MediaType;\n\n");
+		sb.append("@ApplicationScoped\n");
+		sb.append("@Path(\"/").append(path).append("\")\n");
+		sb.append("@Produces(MediaType.APPLICATION_JSON)\n");
+		sb.append("public class ").append(name).append(" {\n");
+		sb.append("\tprivate final ConcurrentMap<String, String> items = new ConcurrentHashMap<>();\n\n");
+		sb.append("\t@GET\n");
+		sb.append("\tpublic String list(@QueryParam(\"limit\") int limit) {\n");
+		sb.append("\t\treturn \"{\\\"resource\\\":").append(index).append(",\\\"size\\\":\" + items.size() + \",\\\"limit\\\":\" + limit + \"}\";\n");
+		sb.append("\t}\n\n");
+		sb.append("\t@GET\n");
+		sb.append("\t@Path(\"{id}\")\n");
+		sb.append("\tpublic String get(@PathParam(\"id\") String id) {\n");
+		sb.append("\t\treturn \"{\\\"resource\\\":").append(index).append(",\\\"id\\\":\\\"\" + id + \"\\\",\\\"value\\\":\\\"\" + items.getOrDefault(id, \"\") + \"\\\"}\";\n");
+		sb.append("\t}\n\n");
+		sb.append("\t@POST\n");
+		sb.append("\t@Path(\"{id}\")\n");
+		sb.append("\tpublic String put(@PathParam(\"id\") String id, String value) {\n");
+		sb.append("\t\titems.put(id, value);\n");
+		sb.append("\t\treturn \"{\\\"resource\\\":").append(index).append(",\\\"id\\\":\\\"\" + id + \"\\\"}\";\n");
+		sb.append("\t}\n");
+		sb.append("}\n");
+		return sb.toString();
+	}
+}
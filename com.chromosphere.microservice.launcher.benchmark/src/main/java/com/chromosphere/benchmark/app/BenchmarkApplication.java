@@ -0,0 +1,8 @@
+package com.chromosphere.benchmark.app;
+
+import javax.ws.rs.ApplicationPath;
+import javax.ws.rs.core.Application;
+
+@ApplicationPath("/api")
+public class BenchmarkApplication extends Application {
+}
@@ -0,0 +1,21 @@
+package com.chromosphere.benchmark.app;
+
+import javax.enterprise.context.RequestScoped;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+
+@RequestScoped
+@Path("/blocking")
+public class BlockingResource {
+
+	// stands in for a JDBC or downstream HTTP call.
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	public String block(@QueryParam("millis") long millis) throws InterruptedException {
+		Thread.sleep(millis);
+		return "{\"blocked\":" + millis + "}";
+	}
+}
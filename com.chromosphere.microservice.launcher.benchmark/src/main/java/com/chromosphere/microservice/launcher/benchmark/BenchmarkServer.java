@@ -0,0 +1,30 @@
+package com.chromosphere.microservice.launcher.benchmark;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import com.chromosphere.microservice.launcher.KumuluzeeLauncher;
+
+// the server side of LauncherBenchmark, started in its own jvm so that the load generator does not share its cpu and heap.
+public class BenchmarkServer {
+	public static void main(String[] args) throws Exception {
+		File status = new File(args[0]);
+		status.delete();
+		long launchStart = System.nanoTime();
+		KumuluzeeLauncher.main(new String[0]);
+		long launched = System.nanoTime();
+		// java 8 has no Process.pid(), so the server tells the benchmark which process to measure.
+		String pid = ManagementFactory.getRuntimeMXBean().getName().split("@")[0];
+		StringBuilder sb = new StringBuilder();
+		sb.append("pid=").append(pid).append('\n');
+		sb.append("launchMillis=").append((launched - launchStart) / 1000000L).append('\n');
+		sb.append("loadedClasses=").append(ManagementFactory.getClassLoadingMXBean().getLoadedClassCount()).append('\n');
+		File temporary = new File(status.getPath() + ".tmp");
+		Files.write(temporary.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+		if (!temporary.renameTo(status)) {
+			throw new RuntimeException("could not write the server status. file:[" + status + "]");
+		}
+	}
+}
@@ -0,0 +1,311 @@
+package com.chromosphere.microservice.launcher.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.chromosphere.microservice.launcher.metrics.LatencyHistogram;
+
+public class LauncherBenchmark {
+	private static final String APPLICATION_PACKAGE = "com.chromosphere.benchmark.app";
+
+	public static void main(String[] args) throws Exception {
+		int port = Integer.getInteger("benchmark.port", 18080);
+		int concurrency = Integer.getInteger("benchmark.concurrency", 64);
+		int duration = Integer.getInteger("benchmark.duration", 10);
+		int blockingMillis = Integer.getInteger("benchmark.blocking.millis", 20);
+		String maxThreads = System.getProperty("benchmark.max.threads", "32,200");
+		File output = new File(System.getProperty("benchmark.output", "target" + File.separator + "benchmark-results.json"));
+
+		Map<String, Object> results = new LinkedHashMap<>();
+		results.put("java", System.getProperty("java.version"));
+		results.put("processors", Runtime.getRuntime().availableProcessors());
+		results.put("concurrency", concurrency);
+		results.put("durationSeconds", duration);
+		// jetty 9.4, which the pinned kumuluzee runs on, has no virtual thread pool, so only platform pool sizes are compared.
+		results.put("virtualThreads", false);
+		for (String value : maxThreads.split(",")) {
+			int threads = Integer.parseInt(value.trim());
+			results.put("platform" + threads, benchmark(port, threads, concurrency, duration, blockingMillis, output));
+		}
+
+		write(output, results);
+		System.out.println("benchmark results are written. file:[" + output + "]");
+	}
+
+	private static Map<String, Object> benchmark(int port, int maxThreads, int concurrency, int duration, int blockingMillis, File output) throws Exception {
+		String base = "http://127.0.0.1:" + port + "/api";
+		File status = new File(output.getAbsoluteFile().getParentFile(), "benchmark-server.status");
+		status.delete();
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("maxThreads", maxThreads);
+
+		long launchStart = System.nanoTime();
+		Process server = new ProcessBuilder(serverCommand(port, maxThreads, status)).inheritIO().start();
+		try {
+			waitForFirstRequest(base + "/r000/1", server);
+			long firstRequest = System.nanoTime();
+			Properties serverStatus = waitForStatus(status, server);
+			long pid = Long.parseLong(serverStatus.getProperty("pid"));
+			// what the launcher actually did, rather than what was asked for.
+			String report = readReport();
+			result.put("threads", reportAttribute(report, "threads"));
+			String cacheHit = reportAttribute(report, "cacheHit");
+			result.put("cacheHit", "unknown".equals(cacheHit) ? cacheHit : Boolean.valueOf(cacheHit));
+			result.put("launchMillis", Long.parseLong(serverStatus.getProperty("launchMillis")));
+			// counted from the process start, so it includes the jvm start.
+			result.put("timeToFirstRequestMillis", (firstRequest - launchStart) / 1000000L);
+			result.put("loadedClasses", Long.parseLong(serverStatus.getProperty("loadedClasses")));
+			result.put("rssKiloBytesAfterStart", rssKiloBytes(pid));
+
+			int resources = countResources();
+			result.put("resources", resources);
+			List<String> resourcePaths = new ArrayList<>();
+			for (int i = 0; i < resources; i++) {
+				resourcePaths.add(base + String.format("/r%03d/", i));
+			}
+			// a short unmeasured run so that both scenarios see compiled code.
+			run(pid, concurrency, 2, () -> resourcePaths.get(ThreadLocalRandom.current().nextInt(resourcePaths.size())) + ThreadLocalRandom.current().nextInt(100));
+			result.put("cpuBound", run(pid, concurrency, duration, () -> resourcePaths.get(ThreadLocalRandom.current().nextInt(resourcePaths.size())) + ThreadLocalRandom.current().nextInt(100)));
+			result.put("blocking", run(pid, concurrency, duration, () -> base + "/blocking?millis=" + blockingMillis));
+			result.put("rssKiloBytesAfterLoad", rssKiloBytes(pid));
+		} finally {
+			server.destroy();
+			server.waitFor();
+		}
+		return result;
+	}
+
+	private static List<String> serverCommand(int port, int maxThreads, File status) {
+		List<String> command = new ArrayList<>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		// the launcher and kumuluzee options given to the benchmark are meant for the server.
+		for (String name : System.getProperties().stringPropertyNames()) {
+			if (name.startsWith("chromosphere.") || (name.startsWith("kumuluzee.") && !name.equals("kumuluzee.server.http.port") && !name.equals("kumuluzee.server.max-threads"))) {
+				command.add("-D" + name + "=" + System.getProperty(name));
+			}
+		}
+		command.add("-Dkumuluzee.server.http.port=" + port);
+		command.add("-Dkumuluzee.server.max-threads=" + maxThreads);
+		command.add("-Dscan.package.name=" + System.getProperty("scan.package.name", APPLICATION_PACKAGE));
+		command.add("-classpath");
+		command.add(System.getProperty("java.class.path"));
+		command.add(BenchmarkServer.class.getName());
+		command.add(status.getAbsolutePath());
+		return command;
+	}
+
+	private static void waitForFirstRequest(String url, Process server) throws InterruptedException {
+		long deadline = System.nanoTime() + 120000000000L;
+		while (System.nanoTime() < deadline) {
+			if (get(url) == 200)
+				return;
+			checkAlive(server);
+			Thread.sleep(5);
+		}
+		throw new RuntimeException("the launched server did not answer. url:[" + url + "]");
+	}
+
+	private static Properties waitForStatus(File status, Process server) throws InterruptedException, IOException {
+		long deadline = System.nanoTime() + 120000000000L;
+		while (System.nanoTime() < deadline) {
+			if (status.isFile()) {
+				Properties properties = new Properties();
+				try (InputStream in = new FileInputStream(status)) {
+					properties.load(in);
+				}
+				return properties;
+			}
+			checkAlive(server);
+			Thread.sleep(5);
+		}
+		throw new RuntimeException("the launched server did not write its status. file:[" + status + "]");
+	}
+
+	private static void checkAlive(Process server) {
+		try {
+			throw new RuntimeException("the launched server exited. exitValue:[" + server.exitValue() + "]");
+		} catch (IllegalThreadStateException e) {
+		}
+	}
+
+	private static Map<String, Object> run(long pid, int concurrency, int seconds, UrlSupplier urls) throws InterruptedException {
+		LatencyHistogram histogram = new LatencyHistogram();
+		AtomicLong errors = new AtomicLong();
+		long end = System.nanoTime() + seconds * 1000000000L;
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < concurrency; i++) {
+			Thread thread = new Thread(() -> {
+				while (System.nanoTime() < end) {
+					long start = System.nanoTime();
+					int status = get(urls.next());
+					if (status == 200) {
+						histogram.record(System.nanoTime() - start);
+					} else {
+						errors.incrementAndGet();
+					}
+				}
+			}, "benchmark-client-" + i);
+			thread.setDaemon(true);
+			threads.add(thread);
+		}
+		long cpuStart = cpuMillis(pid);
+		long started = System.nanoTime();
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		double elapsed = (System.nanoTime() - started) / 1e9;
+		long cpu = cpuMillis(pid) - cpuStart;
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("requests", snapshot.getCount());
+		result.put("errors", errors.get());
+		result.put("throughputPerSecond", snapshot.getCount() / elapsed);
+		result.put("meanMicros", snapshot.getMeanMicros());
+		result.put("p50Micros", snapshot.percentileMicros(50.0));
+		result.put("p90Micros", snapshot.percentileMicros(90.0));
+		result.put("p99Micros", snapshot.percentileMicros(99.0));
+		result.put("p999Micros", snapshot.percentileMicros(99.9));
+		result.put("maxMicros", snapshot.getMaxMicros());
+		result.put("serverCpuMillis", cpu);
+		return result;
+	}
+
+	private static int get(String url) {
+		HttpURLConnection connection = null;
+		try {
+			connection = (HttpURLConnection) new URL(url).openConnection();
+			connection.setConnectTimeout(5000);
+			connection.setReadTimeout(30000);
+			int status = connection.getResponseCode();
+			try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+				if (in != null) {
+					byte[] buffer = new byte[8192];
+					while (in.read(buffer) != -1) {
+					}
+				}
+			}
+			return status;
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	private static int countResources() {
+		int count = 0;
+		while (hasClass(APPLICATION_PACKAGE + ".generated." + String.format("Resource%03d", count))) {
+			count++;
+		}
+		return count;
+	}
+
+	private static boolean hasClass(String className) {
+		try {
+			Class.forName(className, false, LauncherBenchmark.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	private static String readReport() {
+		String report = System.getProperty("chromosphere.launcher.report", "target" + File.separator + "chromosphere-startup.json");
+		File file = new File(report);
+		if (!file.isAbsolute())
+			file = new File(System.getProperty("user.dir"), report);
+		if (!file.isFile())
+			return "";
+		try {
+			return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			return "";
+		}
+	}
+
+	private static String reportAttribute(String report, String name) {
+		Matcher matcher = Pattern.compile("\"" + name + "\":\\s*(?:\"([^\"]*)\"|([^,\\s}]+))").matcher(report);
+		if (!matcher.find())
+			return "unknown";
+		return matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+	}
+
+	private static long rssKiloBytes(long pid) {
+		File status = new File("/proc/" + pid + "/status");
+		if (!status.isFile())
+			return -1L;
+		try {
+			for (String line : Files.readAllLines(status.toPath(), StandardCharsets.UTF_8)) {
+				if (line.startsWith("VmRSS:"))
+					return Long.parseLong(line.replaceAll("[^0-9]", ""));
+			}
+		} catch (IOException e) {
+		}
+		return -1L;
+	}
+
+	// utime and stime of the server process, in USER_HZ ticks which linux fixes at 100 per second.
+	private static long cpuMillis(long pid) {
+		File stat = new File("/proc/" + pid + "/stat");
+		if (!stat.isFile())
+			return -1L;
+		try {
+			String line = new String(Files.readAllBytes(stat.toPath()), StandardCharsets.UTF_8);
+			// the command name may contain spaces, the fields after it start with the state.
+			String[] fields = line.substring(line.lastIndexOf(')') + 2).trim().split("\\s+");
+			return (Long.parseLong(fields[11]) + Long.parseLong(fields[12])) * 10L;
+		} catch (IOException | RuntimeException e) {
+			return -1L;
+		}
+	}
+
+	private static void write(File file, Map<String, Object> results) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		append(sb, results, "");
+		sb.append('\n');
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		Files.write(file.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void append(StringBuilder sb, Map<String, Object> map, String indent) {
+		sb.append("{");
+		boolean first = true;
+		for (Map.Entry<String, Object> entry : map.entrySet()) {
+			sb.append(first ? "\n" : ",\n").append(indent).append("  \"").append(entry.getKey()).append("\": ");
+			Object value = entry.getValue();
+			if (value instanceof Map) {
+				append(sb, (Map<String, Object>) value, indent + "  ");
+			} else if (value instanceof Double) {
+				sb.append(String.format(Locale.ROOT, "%.1f", (Double) value));
+			} else if (value instanceof Number || value instanceof Boolean) {
+				sb.append(value);
+			} else {
+				sb.append('"').append(String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+			}
+			first = false;
+		}
+		sb.append("\n").append(indent).append("}");
+	}
+
+	private interface UrlSupplier {
+		String next();
+	}
+}
@@ -0,0 +1,156 @@
+package com.chromosphere.microservice.launcher;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+
+final class CdsArchive {
+	static final String MODE_PROPERTY = "chromosphere.launcher.cds";
+	static final String FINGERPRINT_PROPERTY = "chromosphere.launcher.cds.fingerprint";
+
+	private static final String GENERATED_JAR = "chromosphere-generated.jar";
+	private static final String CLASS_LIST = "chromosphere-cds.classlist";
+	private static final String ARCHIVE = "chromosphere-cds.jsa";
+	private static final String ARGS = "chromosphere-cds.args";
+	private static final List<String> OWN_OPTIONS = Arrays.asList("-D" + MODE_PROPERTY + "=", "-D" + FINGERPRINT_PROPERTY + "=", "-Xshare:", "-XX:SharedArchiveFile=", "-XX:SharedClassListFile=", "-XX:DumpLoadedClassList=");
+	// only the instance that really serves creates the ready file, binds the metrics port, warms up and reports.
+	private static final List<String> RUNTIME_OPTIONS = Arrays.asList("-Dchromosphere.launcher.ready.file=", "-Dchromosphere.launcher.metrics.port=", "-Dchromosphere.launcher.warmup=", "-Dchromosphere.launcher.warmup.iterations=", "-Dchromosphere.launcher.report=");
+
+	private final File targetDir;
+	private final File generatedJar;
+
+	CdsArchive(File targetDir) {
+		this.targetDir = targetDir;
+		this.generatedJar = new File(targetDir, GENERATED_JAR);
+	}
+
+	File getGeneratedJar() {
+		return generatedJar;
+	}
+
+	void train(List<File> classPathEntries, Map<String, byte[]> implClasses, Function<List<File>, String> fingerprint, String[] args) {
+		writeGeneratedJar(implClasses);
+		// the archive can only hold classes from jar files, and the class path at run time may only extend the one at dump time.
+		List<File> jars = new ArrayList<>();
+		List<File> dirs = new ArrayList<>();
+		for (File entry : classPathEntries) {
+			if (entry.equals(generatedJar))
+				continue;
+			if (entry.isDirectory())
+				dirs.add(entry);
+			else if (entry.isFile())
+				jars.add(entry);
+		}
+		jars.add(generatedJar);
+		List<File> runEntries = new ArrayList<>(jars);
+		runEntries.addAll(dirs);
+		String dumpClassPath = classPath(jars);
+		String runClassPath = classPath(runEntries);
+		File classList = new File(targetDir, CLASS_LIST);
+		File archive = new File(targetDir, ARCHIVE);
+
+		List<String> training = new ArrayList<>();
+		training.add(javaCommand());
+		training.addAll(inheritedOptions());
+		training.add("-Xshare:off");
+		training.add("-Dchromosphere.launcher.report=false");
+		training.add("-XX:DumpLoadedClassList=" + classList.getAbsolutePath());
+		training.add("-D" + MODE_PROPERTY + "=exit");
+		training.add("-cp");
+		training.add(runClassPath);
+		training.add(KumuluzeeLauncher.class.getName());
+		training.addAll(Arrays.asList(args));
+		exec("training run", training);
+
+		List<String> dump = new ArrayList<>();
+		dump.add(javaCommand());
+		dump.add("-Xshare:dump");
+		dump.add("-XX:SharedClassListFile=" + classList.getAbsolutePath());
+		dump.add("-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+		dump.add("-cp");
+		dump.add(dumpClassPath);
+		exec("archive dump", dump);
+
+		List<String> lines = new ArrayList<>();
+		lines.add("-XX:SharedArchiveFile=" + quote(archive.getAbsolutePath()));
+		lines.add("-Xshare:auto");
+		lines.add("-D" + FINGERPRINT_PROPERTY + "=" + fingerprint.apply(runEntries));
+		lines.add("-cp");
+		lines.add(quote(runClassPath));
+		File argsFile = new File(targetDir, ARGS);
+		try {
+			Files.write(argsFile.toPath(), lines, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		System.out.println("AppCDS archive is ready. start with: java @" + argsFile.getPath() + " " + KumuluzeeLauncher.class.getName());
+	}
+
+	private void writeGeneratedJar(Map<String, byte[]> implClasses) {
+		targetDir.mkdirs();
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(generatedJar))) {
+			for (Map.Entry<String, byte[]> entry : implClasses.entrySet()) {
+				out.putNextEntry(new JarEntry(entry.getKey().replace('.', '/') + ".class"));
+				out.write(entry.getValue());
+				out.closeEntry();
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static List<String> inheritedOptions() {
+		List<String> options = ManagementFactory.getRuntimeMXBean().getInputArguments().stream() //
+				.filter(option -> !isExcluded(option)) //
+				.collect(Collectors.toList());
+		// properties given to a host such as exec:java never show up as JVM options.
+		for (String name : System.getProperties().stringPropertyNames()) {
+			boolean launcherProperty = name.startsWith("chromosphere.") || name.startsWith("scan.") || name.startsWith("kumuluzee.");
+			if (launcherProperty && !isExcluded("-D" + name + "=")) {
+				options.add("-D" + name + "=" + System.getProperty(name));
+			}
+		}
+		return options;
+	}
+
+	private static boolean isExcluded(String option) {
+		return OWN_OPTIONS.stream().anyMatch(option::startsWith) || RUNTIME_OPTIONS.stream().anyMatch(option::startsWith);
+	}
+
+	private static void exec(String name, List<String> command) {
+		try {
+			int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+			if (exit != 0) {
+				throw new RuntimeException("AppCDS " + name + " failed. exit:[" + exit + "]");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String javaCommand() {
+		return System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+	}
+
+	private static String classPath(List<File> entries) {
+		return entries.stream().map(File::getAbsolutePath).collect(Collectors.joining(File.pathSeparator));
+	}
+
+	private static String quote(String value) {
+		return "\"" + value.replace("\\", "\\\\") + "\"";
+	}
+}
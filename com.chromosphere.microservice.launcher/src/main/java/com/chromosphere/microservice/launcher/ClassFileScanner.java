@@ -0,0 +1,377 @@
+package com.chromosphere.microservice.launcher;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+final class ClassFileScanner {
+	static final String APPLICATION_PATH = "Ljavax/ws/rs/ApplicationPath;";
+	static final String PATH = "Ljavax/ws/rs/Path;";
+
+	private static final int ACC_INTERFACE = 0x0200;
+	private static final int ACC_ANNOTATION = 0x2000;
+	private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+	private final List<File> classPathEntries;
+	private final String generatedSuffix;
+	private final File generatedJar;
+
+	ClassFileScanner(ClassLoader classLoader, String generatedSuffix, File generatedJar) {
+		this.classPathEntries = classPathEntries(classLoader);
+		this.generatedSuffix = generatedSuffix + ".class";
+		this.generatedJar = generatedJar.getAbsoluteFile();
+	}
+
+	List<File> getClassPathEntries() {
+		return classPathEntries;
+	}
+
+	Map<String, ClassFileInfo> scan(String packageName, boolean topLevelOnly, Set<String> annotations) {
+		final String packagePath = packageName == null || packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/";
+		List<List<ClassFileInfo>> found = classPathEntries.parallelStream() //
+				.filter(entry -> !entry.equals(generatedJar)) //
+				.map(entry -> scanEntry(entry, packagePath, topLevelOnly, annotations, generatedSuffix)) //
+				.collect(Collectors.toList());
+		Map<String, ClassFileInfo> classes = new LinkedHashMap<>();
+		for (List<ClassFileInfo> infos : found) {
+			for (ClassFileInfo info : infos) {
+				classes.putIfAbsent(info.getName(), info);
+			}
+		}
+		return classes;
+	}
+
+	private static List<ClassFileInfo> scanEntry(File entry, String packagePath, boolean topLevelOnly, Set<String> annotations, String generatedSuffix) {
+		if (entry.isDirectory()) {
+			return scanDirectory(entry, packagePath, topLevelOnly, annotations, generatedSuffix);
+		}
+		String lowerName = entry.getName().toLowerCase();
+		if (entry.isFile() && (lowerName.endsWith(".jar") || lowerName.endsWith(".zip"))) {
+			return scanJar(entry, packagePath, topLevelOnly, annotations, generatedSuffix);
+		}
+		return Collections.emptyList();
+	}
+
+	private static List<ClassFileInfo> scanDirectory(File root, String packagePath, boolean topLevelOnly, Set<String> annotations, String generatedSuffix) {
+		File packageDir = packagePath.isEmpty() ? root : new File(root, packagePath);
+		if (!packageDir.isDirectory()) {
+			return Collections.emptyList();
+		}
+		final Path rootPath = root.toPath();
+		List<ClassFileInfo> infos = new ArrayList<>();
+		try (Stream<Path> paths = Files.walk(packageDir.toPath())) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				String name = rootPath.relativize(path).toString().replace(File.separatorChar, '/');
+				if (!isTarget(name, topLevelOnly, generatedSuffix) || !Files.isRegularFile(path)) {
+					continue;
+				}
+				try (InputStream in = new FileInputStream(path.toFile())) {
+					ClassFileInfo info = read(in, annotations);
+					if (info != null) {
+						infos.add(info);
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return infos;
+	}
+
+	private static List<ClassFileInfo> scanJar(File file, String packagePath, boolean topLevelOnly, Set<String> annotations, String generatedSuffix) {
+		List<ClassFileInfo> infos = new ArrayList<>();
+		try (JarFile jarFile = new JarFile(file)) {
+			Enumeration<JarEntry> entries = jarFile.entries();
+			while (entries.hasMoreElements()) {
+				JarEntry entry = entries.nextElement();
+				String name = entry.getName();
+				if (!name.startsWith(packagePath) || !isTarget(name, topLevelOnly, generatedSuffix)) {
+					continue;
+				}
+				try (InputStream in = jarFile.getInputStream(entry)) {
+					ClassFileInfo info = read(in, annotations);
+					if (info != null) {
+						infos.add(info);
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return infos;
+	}
+
+	private static boolean isTarget(String name, boolean topLevelOnly, String generatedSuffix) {
+		// classes generated by an earlier start carry the scanned annotations too.
+		if (!name.endsWith(".class") || name.startsWith("META-INF/") || name.endsWith(generatedSuffix)) {
+			return false;
+		}
+		String simpleName = name.substring(name.lastIndexOf('/') + 1);
+		if (simpleName.equals("module-info.class") || simpleName.equals("package-info.class")) {
+			return false;
+		}
+		return !topLevelOnly || simpleName.indexOf('$') == -1;
+	}
+
+	private static ClassFileInfo read(InputStream is, Set<String> annotations) {
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+			if (in.readInt() != 0xCAFEBABE) {
+				return null;
+			}
+			in.readUnsignedShort();
+			in.readUnsignedShort();
+			int count = in.readUnsignedShort();
+			String[] utf8s = new String[count];
+			int[] classes = new int[count];
+			boolean referenced = false;
+			for (int i = 1; i < count; i++) {
+				int tag = in.readUnsignedByte();
+				switch (tag) {
+				case 1:
+					utf8s[i] = in.readUTF();
+					referenced |= annotations.contains(utf8s[i]);
+					break;
+				case 7:
+					classes[i] = in.readUnsignedShort();
+					break;
+				case 8:
+				case 16:
+				case 19:
+				case 20:
+					in.skipBytes(2);
+					break;
+				case 15:
+					in.skipBytes(3);
+					break;
+				case 3:
+				case 4:
+				case 9:
+				case 10:
+				case 11:
+				case 12:
+				case 17:
+				case 18:
+					in.skipBytes(4);
+					break;
+				case 5:
+				case 6:
+					in.skipBytes(8);
+					i++;
+					break;
+				default:
+					return null;
+				}
+			}
+			int access = in.readUnsignedShort();
+			String name = utf8s[classes[in.readUnsignedShort()]].replace('/', '.');
+			int superIndex = in.readUnsignedShort();
+			String superName = superIndex == 0 ? null : utf8s[classes[superIndex]].replace('/', '.');
+			String[] interfaceNames = new String[in.readUnsignedShort()];
+			for (int i = 0; i < interfaceNames.length; i++) {
+				interfaceNames[i] = utf8s[classes[in.readUnsignedShort()]].replace('/', '.');
+			}
+			ClassFileInfo info = new ClassFileInfo(name, superName, interfaceNames, (access & (ACC_INTERFACE | ACC_ANNOTATION)) != 0);
+			if (!referenced) {
+				// none of the annotations appear in the constant pool, only the hierarchy is kept.
+				return info;
+			}
+			info.classAnnotations = new HashSet<>();
+			info.methodAnnotations = new HashSet<>();
+			readMembers(in, utf8s, null);
+			readMembers(in, utf8s, info.methodAnnotations);
+			readAttributes(in, utf8s, info.classAnnotations);
+			return info;
+		} catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	private static void readMembers(DataInputStream in, String[] utf8s, Set<String> annotations) throws IOException {
+		int count = in.readUnsignedShort();
+		for (int i = 0; i < count; i++) {
+			in.skipBytes(6);
+			readAttributes(in, utf8s, annotations);
+		}
+	}
+
+	private static void readAttributes(DataInputStream in, String[] utf8s, Set<String> annotations) throws IOException {
+		int count = in.readUnsignedShort();
+		for (int i = 0; i < count; i++) {
+			String name = utf8s[in.readUnsignedShort()];
+			int length = in.readInt();
+			if (annotations == null || !RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+				in.skipBytes(length);
+				continue;
+			}
+			int annotationCount = in.readUnsignedShort();
+			for (int j = 0; j < annotationCount; j++) {
+				annotations.add(readAnnotation(in, utf8s));
+			}
+		}
+	}
+
+	private static String readAnnotation(DataInputStream in, String[] utf8s) throws IOException {
+		String type = utf8s[in.readUnsignedShort()];
+		int pairs = in.readUnsignedShort();
+		for (int i = 0; i < pairs; i++) {
+			in.skipBytes(2);
+			skipElementValue(in, utf8s);
+		}
+		return type;
+	}
+
+	private static void skipElementValue(DataInputStream in, String[] utf8s) throws IOException {
+		int tag = in.readUnsignedByte();
+		switch (tag) {
+		case 'e':
+			in.skipBytes(4);
+			break;
+		case '@':
+			readAnnotation(in, utf8s);
+			break;
+		case '[':
+			int count = in.readUnsignedShort();
+			for (int i = 0; i < count; i++) {
+				skipElementValue(in, utf8s);
+			}
+			break;
+		default:
+			in.skipBytes(2);
+			break;
+		}
+	}
+
+	private static List<File> classPathEntries(ClassLoader classLoader) {
+		Deque<ClassLoader> loaders = new ArrayDeque<>();
+		for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+			loaders.push(cl);
+		}
+		Set<File> entries = new LinkedHashSet<>();
+		for (ClassLoader cl : loaders) {
+			if (cl instanceof URLClassLoader) {
+				for (URL url : ((URLClassLoader) cl).getURLs()) {
+					if ("file".equals(url.getProtocol())) {
+						try {
+							entries.add(new File(url.toURI()));
+						} catch (Exception e) {
+							entries.add(new File(url.getPath()));
+						}
+					}
+				}
+			}
+		}
+		String javaClassPath = System.getProperty("java.class.path", "");
+		for (String path : javaClassPath.split(File.pathSeparator)) {
+			if (!path.isEmpty()) {
+				entries.add(new File(path).getAbsoluteFile());
+			}
+		}
+		Set<File> visited = new HashSet<>();
+		Deque<File> queue = new ArrayDeque<>(entries);
+		while (!queue.isEmpty()) {
+			File file = queue.poll();
+			if (!visited.add(file) || !file.isFile() || !file.getName().toLowerCase().endsWith(".jar")) {
+				continue;
+			}
+			for (File manifestEntry : manifestClassPath(file)) {
+				if (entries.add(manifestEntry)) {
+					queue.add(manifestEntry);
+				}
+			}
+		}
+		return Collections.unmodifiableList(new ArrayList<>(entries));
+	}
+
+	private static List<File> manifestClassPath(File jar) {
+		List<File> files = new ArrayList<>();
+		try (JarFile jarFile = new JarFile(jar)) {
+			Manifest manifest = jarFile.getManifest();
+			if (manifest == null) {
+				return files;
+			}
+			String classPath = manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+			if (classPath == null) {
+				return files;
+			}
+			for (String path : classPath.trim().split("\\s+")) {
+				if (path.isEmpty()) {
+					continue;
+				}
+				try {
+					URL url = new URL(jar.toURI().toURL(), path);
+					if ("file".equals(url.getProtocol())) {
+						files.add(new File(url.toURI()));
+					}
+				} catch (Exception e) {
+				}
+			}
+		} catch (IOException e) {
+		}
+		return files;
+	}
+
+	static final class ClassFileInfo {
+		private final String name;
+		private final String superName;
+		private final String[] interfaceNames;
+		private final boolean isInterface;
+		private Set<String> classAnnotations = Collections.emptySet();
+		private Set<String> methodAnnotations = Collections.emptySet();
+
+		ClassFileInfo(String name, String superName, String[] interfaceNames, boolean isInterface) {
+			this.name = name;
+			this.superName = superName;
+			this.interfaceNames = interfaceNames;
+			this.isInterface = isInterface;
+		}
+
+		String getName() {
+			return name;
+		}
+
+		String getSuperName() {
+			return superName;
+		}
+
+		String[] getInterfaceNames() {
+			return interfaceNames;
+		}
+
+		boolean isInterface() {
+			return isInterface;
+		}
+
+		boolean isAnnotatedWith(String annotation) {
+			return classAnnotations.contains(annotation);
+		}
+
+		boolean hasMethodAnnotatedWith(String annotation) {
+			return methodAnnotations.contains(annotation);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.chromosphere.microservice.launcher;
+
+import java.lang.reflect.Method;
+
+final class EmbeddedJetty {
+	private static final String JETTY_SERVER = "org.eclipse.jetty.server.Server";
+
+	private EmbeddedJetty() {
+	}
+
+	static Object server(Object eeApplication) {
+		// EeApplication -> ServerWrapper -> servlet server -> jetty Server.
+		Object current = eeApplication;
+		for (int depth = 0; current != null && depth < 4; depth++) {
+			if (isJettyServer(current.getClass()))
+				return current;
+			Method getter = method(current.getClass(), "getServer");
+			current = getter == null ? null : invoke(getter, current);
+		}
+		return null;
+	}
+
+	static int localPort(Object eeApplication) {
+		Object server = server(eeApplication);
+		Method getter = server == null ? null : method(server.getClass(), "getConnectors");
+		Object[] connectors = getter == null ? null : (Object[]) invoke(getter, server);
+		if (connectors == null)
+			return -1;
+		for (Object connector : connectors) {
+			Method localPort = method(connector.getClass(), "getLocalPort");
+			Object port = localPort == null ? null : invoke(localPort, connector);
+			if (port instanceof Integer && (Integer) port > 0)
+				return (Integer) port;
+		}
+		return -1;
+	}
+
+	static String threadPool(Object eeApplication) {
+		Object server = server(eeApplication);
+		Method getter = server == null ? null : method(server.getClass(), "getThreadPool");
+		Object threadPool = getter == null ? null : invoke(getter, server);
+		if (threadPool == null)
+			return null;
+		Method min = method(threadPool.getClass(), "getMinThreads");
+		Method max = method(threadPool.getClass(), "getMaxThreads");
+		if (min == null || max == null)
+			return threadPool.getClass().getSimpleName();
+		return threadPool.getClass().getSimpleName() + "[min=" + invoke(min, threadPool) + ",max=" + invoke(max, threadPool) + "]";
+	}
+
+	private static boolean isJettyServer(Class<?> clazz) {
+		for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+			if (JETTY_SERVER.equals(current.getName()))
+				return true;
+		}
+		return false;
+	}
+
+	private static Method method(Class<?> clazz, String name, Class<?>... parameterTypes) {
+		try {
+			return clazz.getMethod(name, parameterTypes);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	private static Object invoke(Method method, Object target) {
+		try {
+			return method.invoke(target);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package com.chromosphere.microservice.launcher;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class InMemoryClassLoader extends ClassLoader {
+	private static final String PROTOCOL = "chromosphere-mem";
+
+	static {
+		ClassLoader.registerAsParallelCapable();
+	}
+
+	private final Map<String, byte[]> classes = new ConcurrentHashMap<>();
+	private final Map<String, byte[]> resources = new ConcurrentHashMap<>();
+	private final URLStreamHandler handler = new Handler();
+
+	InMemoryClassLoader(ClassLoader parent) {
+		super(parent);
+	}
+
+	Class<?> define(String className, byte[] bytes) {
+		synchronized (getClassLoadingLock(className)) {
+			Class<?> clazz = findLoadedClass(className);
+			if (clazz != null) {
+				return clazz;
+			}
+			classes.put(className, bytes);
+			resources.put(className.replace('.', '/') + ".class", bytes);
+			return defineClass(className, bytes, 0, bytes.length);
+		}
+	}
+
+	void addResource(String name, byte[] bytes) {
+		resources.put(name, bytes);
+	}
+
+	@Override
+	protected Class<?> findClass(String className) throws ClassNotFoundException {
+		byte[] bytes = classes.get(className);
+		if (bytes == null) {
+			throw new ClassNotFoundException(className);
+		}
+		return defineClass(className, bytes, 0, bytes.length);
+	}
+
+	@Override
+	protected URL findResource(String name) {
+		if (!resources.containsKey(name)) {
+			return null;
+		}
+		try {
+			return new URL(PROTOCOL, null, -1, "/" + name, handler);
+		} catch (MalformedURLException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	protected Enumeration<URL> findResources(String name) {
+		URL url = findResource(name);
+		if (url == null) {
+			return Collections.emptyEnumeration();
+		}
+		return Collections.enumeration(Collections.singletonList(url));
+	}
+
+	private final class Handler extends URLStreamHandler {
+		@Override
+		protected URLConnection openConnection(URL url) throws IOException {
+			final byte[] bytes = resources.get(url.getPath().substring(1));
+			if (bytes == null) {
+				throw new IOException("resource is not found. url:[" + url + "]");
+			}
+			return new URLConnection(url) {
+				@Override
+				public void connect() {
+					connected = true;
+				}
+
+				@Override
+				public int getContentLength() {
+					return bytes.length;
+				}
+
+				@Override
+				public InputStream getInputStream() {
+					return new ByteArrayInputStream(bytes);
+				}
+			};
+		}
+	}
+}
@@ -1,155 +1,408 @@
 package com.chromosphere.microservice.launcher;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.util.HashMap;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
-import javax.ws.rs.ApplicationPath;
-import javax.ws.rs.Path;
-
-import com.google.common.collect.ImmutableSet;
-import com.google.common.reflect.ClassPath;
-import com.google.common.reflect.ClassPath.ClassInfo;
+import com.chromosphere.microservice.launcher.ClassFileScanner.ClassFileInfo;
+import com.chromosphere.microservice.launcher.annotation.CachedResponse;
+import com.chromosphere.microservice.launcher.metrics.EndpointMetrics;
+import com.chromosphere.microservice.launcher.metrics.LatencyHistogram;
 import com.kumuluz.ee.EeApplication;
+import com.sun.net.httpserver.HttpServer;
 
 import javassist.CannotCompileException;
-import javassist.ClassClassPath;
 import javassist.ClassPool;
 import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtMethod;
 import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
 import javassist.NotFoundException;
 import javassist.bytecode.AnnotationsAttribute;
 import javassist.bytecode.ClassFile;
 import javassist.bytecode.ConstPool;
 import javassist.bytecode.annotation.Annotation;
+import javassist.util.proxy.RuntimeSupport;
 
 public class KumuluzeeLauncher {
 	public static void main(String[] args) {
-		KumuluzeeLauncher launcher = new KumuluzeeLauncher();
-		launcher.initialize();
-		launcher.scanApplication();
-		launcher.scanResources();
-		launcher.createApplicationImplClass();
-		launcher.createResourcesImplClass();
-		launcher.addFiles();
-		launcher.setClassPath();
-		launcher.launchKumuluzEe();
+		KumuluzeeLauncher launcher = new KumuluzeeLauncher(args);
+		StartupProfiler profiler = new StartupProfiler();
+		try {
+			profiler.run("initialize", launcher::initialize);
+			boolean restored = profiler.call("restoreCache", launcher::restoreCache);
+			if (!restored) {
+				profiler.run("scanApplication", launcher::scanApplication);
+				profiler.run("scanResources", launcher::scanResources);
+				profiler.run("createApplicationImplClass", launcher::createApplicationImplClass);
+				profiler.run("createResourcesImplClass", launcher::createResourcesImplClass);
+				profiler.run("storeCache", launcher::storeCache);
+			}
+			if ("train".equals(launcher.cdsMode)) {
+				profiler.run("trainCds", launcher::trainCds);
+				return;
+			}
+			profiler.run("addFiles", launcher::addFiles);
+			profiler.run("setClassPath", launcher::setClassPath);
+			profiler.run("launchKumuluzEe", launcher::launchKumuluzEe);
+			profiler.run("serveMetrics", launcher::serveMetrics);
+			profiler.run("warmup", launcher::warmup);
+			profiler.run("ready", launcher::ready);
+			profiler.attribute("cacheHit", restored);
+		} finally {
+			profiler.attribute("applicationClasses", launcher.applicationClasses == null ? "" : String.join(",", launcher.applicationClasses.keySet()));
+			profiler.attribute("resourceCount", launcher.resourceClasses == null ? 0 : launcher.resourceClasses.size());
+			if (launcher.scanCache != null) {
+				// tells which classpath a cache hit or miss was computed for.
+				profiler.attribute("cacheFingerprint", launcher.scanCache.getFingerprint());
+			}
+			if (launcher.threads != null) {
+				profiler.attribute("threads", launcher.threads);
+			}
+			if (launcher.warmup != null) {
+				profiler.attribute("warmupRequests", launcher.warmup.getRequests());
+				profiler.attribute("warmupFailures", launcher.warmup.getFailures());
+			}
+			// in-memory mode writes no report unless a file is asked for.
+			String report = System.getProperty("chromosphere.launcher.report", launcher.inMemory ? "false" : "target" + File.separator + "chromosphere-startup.json");
+			if (!"false".equals(report)) {
+				File reportFile = new File(report);
+				if (!reportFile.isAbsolute()) {
+					reportFile = new File(System.getProperty("user.dir"), report);
+				}
+				profiler.writeReport(reportFile);
+			}
+		}
+		if ("exit".equals(launcher.cdsMode)) {
+			// the training run ends here so that the loaded class list gets written.
+			System.exit(0);
+		}
 	}
 
+	private final String[] args;
 	private String currentPath;
 	private File classesDir;
 	private File beansxmlDir;
 	private File webxmlDir;
 	private ClassPool classPool;
-	private Class<?> applicationClass = null;
-	private String applicationClassName = null;
+	private Map<String, Class<?>> applicationClasses;
+	private Map<String, List<String>> applicationResources;
 	private Map<String, Class<?>> resourceClasses;
 	private ClassLoader classLoader;
+	private ClassFileScanner scanner;
+	private ScanCache scanCache;
+	private Map<String, byte[]> implClasses;
+	private boolean inMemory;
+	InMemoryClassLoader inMemoryClassLoader;
+	private int parallelism;
+	private boolean multiApplication;
+	private boolean metrics;
+	private String cdsMode;
+	private CdsArchive cdsArchive;
+	private boolean generatedJarOnClassPath;
+	private String fingerprint;
+	private String threads;
+	private EeApplication eeApplication;
+	private Warmup warmup;
+	private File readyFile;
 
 	private static final String BEANS_XML_ORIGINAL = "beans.xml.original";
 	private static final String WEB_XML_ORIGINAL = "web.xml.original";
+	private static final String IMPL_CLASS_SUFFIX = "__CHROMOSPHERE";
+	private static final String RESPONSE_CACHE_FIELD = "__chromosphere_cache";
+	private static final Set<String> NOT_CACHEABLE = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("javax.ws.rs.core.Response", "javax.ws.rs.core.StreamingOutput", "java.io.InputStream")));
+	private static final String CACHE_FILE_NAME = "chromosphere-launcher.cache";
+	static final Set<String> ANNOTATIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(ClassFileScanner.APPLICATION_PATH, ClassFileScanner.PATH)));
 
-	private KumuluzeeLauncher() {
+	KumuluzeeLauncher(String[] args) {
+		this.args = args;
 	}
 
-	private void initialize() {
+	void initialize() {
 		classLoader = KumuluzeeLauncher.class.getClassLoader();
 		currentPath = System.getProperty("user.dir");
 		classesDir = new File(new File(currentPath), "target" + File.separator + "classes");
 		beansxmlDir = new File(classesDir, "META-INF");
 		webxmlDir = new File(classesDir, "webapp" + File.separator + "WEB-INF");
 		classPool = ClassPool.getDefault();
-		resourceClasses = new HashMap<>();
+		classPool.appendClassPath(new LoaderClassPath(classLoader));
+		parallelism = Integer.getInteger("chromosphere.launcher.parallelism", Runtime.getRuntime().availableProcessors());
+		applicationClasses = new LinkedHashMap<>();
+		applicationResources = new LinkedHashMap<>();
+		resourceClasses = new LinkedHashMap<>();
+		multiApplication = Boolean.getBoolean("chromosphere.launcher.multi") || System.getProperty("chromosphere.launcher.applications") != null;
+		metrics = Boolean.getBoolean("chromosphere.launcher.metrics");
+		cdsArchive = new CdsArchive(classesDir.getParentFile());
+		scanner = new ClassFileScanner(classLoader, IMPL_CLASS_SUFFIX, cdsArchive.getGeneratedJar());
+		implClasses = new LinkedHashMap<>();
+		inMemory = Boolean.getBoolean("chromosphere.launcher.inmemory");
+		if (inMemory) {
+			inMemoryClassLoader = new InMemoryClassLoader(classLoader);
+		}
+		String ready = System.getProperty("chromosphere.launcher.ready.file");
+		if (ready != null) {
+			readyFile = new File(ready).isAbsolute() ? new File(ready) : new File(currentPath, ready);
+			// a file left by an earlier start must not report this one as ready.
+			readyFile.delete();
+		}
+		cdsMode = System.getProperty(CdsArchive.MODE_PROPERTY);
+		generatedJarOnClassPath = scanner.getClassPathEntries().contains(cdsArchive.getGeneratedJar().getAbsoluteFile());
+		String archivedFingerprint = System.getProperty(CdsArchive.FINGERPRINT_PROPERTY);
+		if (archivedFingerprint != null && !archivedFingerprint.equals(fingerprint())) {
+			System.err.println("AppCDS archive is out of date, generated classes are defined again. re-run with -D" + CdsArchive.MODE_PROPERTY + "=train to refresh it.");
+		}
+		if (inMemory) {
+			// nothing is written in this mode, so there is no cache either.
+			return;
+		}
+		if (!"false".equals(System.getProperty("chromosphere.launcher.cache"))) {
+			scanCache = new ScanCache(new File(classesDir.getParentFile(), CACHE_FILE_NAME), fingerprint());
+		}
 
 		beansxmlDir.mkdirs();
 		webxmlDir.mkdirs();
 	}
 
-	private void scanApplication() {
-		try {
-			String packageName = System.getProperty("scan.package.name");
-			ImmutableSet<ClassInfo> classes = null;
-			if (packageName == null) {
-				classes = ClassPath.from(classLoader).getAllClasses();
-			} else {
-				classes = ClassPath.from(classLoader).getTopLevelClassesRecursive(packageName);
-			}
-			List<Class<?>> allClasses = classes.stream().filter(info -> {
-				try {
-					info.load();
-					return true;
-				} catch (Throwable e) {
+	private String fingerprint() {
+		if (fingerprint == null) {
+			fingerprint = fingerprint(scanner.getClassPathEntries());
+		}
+		return fingerprint;
+	}
+
+	private String fingerprint(List<File> classPathEntries) {
+		// everything that changes the generated classes is part of the key.
+		String scanKey = System.getProperty("scan.package.name") + ";" + System.getProperty("chromosphere.launcher.applications") + ";" + multiApplication + ";" + metrics;
+		return ScanCache.fingerprint(classPathEntries, scanKey, this::isGenerated);
+	}
+
+	private boolean isGenerated(File file) {
+		return file.getName().endsWith(IMPL_CLASS_SUFFIX + ".class") //
+				|| file.equals(cdsArchive.getGeneratedJar()) //
+				|| file.equals(new File(beansxmlDir, "beans.xml")) //
+				|| file.equals(new File(webxmlDir, "web.xml"));
+	}
+
+	private boolean restoreCache() {
+		if (scanCache == null || !scanCache.load())
+			return false;
+		Map<String, Class<?>> applications = new LinkedHashMap<>();
+		Map<String, Class<?>> classes = new LinkedHashMap<>();
+		for (Map.Entry<String, List<String>> entry : scanCache.getApplicationResources().entrySet()) {
+			Class<?> applicationClass = load(entry.getKey());
+			if (applicationClass == null)
+				return false;
+			applications.put(entry.getKey(), applicationClass);
+			for (String resourceClassName : entry.getValue()) {
+				Class<?> resourceClass = load(resourceClassName);
+				if (resourceClass == null)
 					return false;
+				classes.put(resourceClassName, resourceClass);
+			}
+		}
+		applicationClasses.putAll(applications);
+		applicationResources.putAll(scanCache.getApplicationResources());
+		resourceClasses.putAll(classes);
+		for (Map.Entry<String, byte[]> entry : scanCache.getImplClasses().entrySet()) {
+			try {
+				defineImplClass(classPool.makeClass(new ByteArrayInputStream(entry.getValue())), entry.getValue());
+			} catch (CannotCompileException e) {
+				throw new RuntimeException(e);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		return true;
+	}
+
+	private void storeCache() {
+		if (scanCache != null) {
+			scanCache.store(applicationResources, implClasses);
+		}
+	}
+
+	void scanApplication() {
+		String applicationNames = System.getProperty("chromosphere.launcher.applications");
+		List<Class<?>> allClasses;
+		if (applicationNames != null) {
+			allClasses = new ArrayList<>();
+			for (String name : applicationNames.split(",")) {
+				if (name.trim().isEmpty())
+					continue;
+				Class<?> clazz = load(name.trim());
+				if (clazz == null) {
+					throw new RuntimeException("javax.ws.rs.core.Application is not found. class:[" + name.trim() + "]");
 				}
-			}).map(info -> info.load()).filter(clazz -> {
-				return clazz.isAnnotationPresent(ApplicationPath.class);
-			}).collect(Collectors.toList());
-			if (allClasses == null || allClasses.isEmpty()) {
-				throw new RuntimeException("javax.ws.rs.core.Application is not found.");
-			} else if (allClasses.size() > 1) {
-				throw new RuntimeException("Cannot launch multi-javax.ws.rs.core.Application.");
-			}
-			Class<?> clazz = allClasses.get(0);
-			applicationClass = clazz;
-			applicationClassName = clazz.getName();
-		} catch (IOException e) {
+				allClasses.add(clazz);
+			}
+		} else {
+			String packageName = System.getProperty("scan.package.name");
+			Map<String, ClassFileInfo> classes = scanner.scan(packageName, packageName != null, ANNOTATIONS);
+			allClasses = classes.values().stream() //
+					.filter(info -> !info.isInterface() && info.isAnnotatedWith(ClassFileScanner.APPLICATION_PATH)) //
+					.map(info -> load(info.getName())) //
+					.filter(clazz -> clazz != null) //
+					.collect(Collectors.toList());
+		}
+		if (allClasses == null || allClasses.isEmpty()) {
+			throw new RuntimeException("javax.ws.rs.core.Application is not found.");
+		} else if (allClasses.size() > 1 && !multiApplication) {
+			throw new RuntimeException("Cannot launch multi-javax.ws.rs.core.Application.");
 		}
+		allClasses.stream().forEach(clazz -> {
+			applicationClasses.putIfAbsent(clazz.getName(), clazz);
+			applicationResources.putIfAbsent(clazz.getName(), new ArrayList<>());
+		});
 	}
 
-	private void scanResources() {
+	void scanResources() {
+		Set<String> packageNames = applicationClasses.values().stream() //
+				.map(KumuluzeeLauncher::packageName) //
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+		for (String packageName : packageNames) {
+			Map<String, ClassFileInfo> classes = scanner.scan(packageName, true, ANNOTATIONS);
+			for (ClassFileInfo info : classes.values()) {
+				if (info.isInterface() || resourceClasses.containsKey(info.getName()) || !isResource(info, classes))
+					continue;
+				Class<?> clazz = load(info.getName());
+				if (clazz == null)
+					continue;
+				resourceClasses.put(clazz.getName(), clazz);
+				applicationResources.get(ownerOf(clazz)).add(clazz.getName());
+			}
+		}
+		if (resourceClasses.isEmpty()) {
+			throw new RuntimeException("javax.ws.rs.Path is not found.");
+		}
+	}
+
+	private String ownerOf(Class<?> resourceClass) {
+		// the application with the most specific package owns the resource.
+		String owner = null;
+		int ownerLength = -1;
+		String resourcePackageName = packageName(resourceClass);
+		for (Class<?> applicationClass : applicationClasses.values()) {
+			String applicationPackageName = packageName(applicationClass);
+			boolean contains = applicationPackageName.isEmpty() || resourcePackageName.equals(applicationPackageName) || resourcePackageName.startsWith(applicationPackageName + ".");
+			if (contains && applicationPackageName.length() > ownerLength) {
+				owner = applicationClass.getName();
+				ownerLength = applicationPackageName.length();
+			}
+		}
+		return owner;
+	}
+
+	private static String packageName(Class<?> clazz) {
+		return clazz.getPackage() == null ? "" : clazz.getPackage().getName();
+	}
+
+	static boolean isResource(ClassFileInfo info, Map<String, ClassFileInfo> classes) {
+		// a class level @Path is not inherited, a method level one is.
+		return info.isAnnotatedWith(ClassFileScanner.PATH) || hasPathMethod(info, classes, new HashSet<>());
+	}
+
+	private static boolean hasPathMethod(ClassFileInfo info, Map<String, ClassFileInfo> classes, Set<String> visited) {
+		if (info == null || !visited.add(info.getName()))
+			return false;
+		if (info.hasMethodAnnotatedWith(ClassFileScanner.PATH))
+			return true;
+		if (info.getSuperName() != null && hasPathMethod(classes.get(info.getSuperName()), classes, visited))
+			return true;
+		for (String interfaceName : info.getInterfaceNames()) {
+			if (hasPathMethod(classes.get(interfaceName), classes, visited))
+				return true;
+		}
+		return false;
+	}
+
+	private Class<?> load(String className) {
 		try {
-			final String packageName = applicationClass.getPackage().getName();
-			List<Class<?>> allClasses = ClassPath.from(classLoader).getTopLevelClassesRecursive(packageName).stream().filter(info -> {
-				try {
-					info.load();
-					return true;
-				} catch (Throwable e) {
-					return false;
-				}
-			}).map(info -> info.load()).filter(clazz -> {
-				if (clazz.isAnnotationPresent(Path.class))
-					return true;
-				for (Method m : clazz.getMethods()) {
-					if (m.isAnnotationPresent(Path.class))
-						return true;
+			return Class.forName(className, false, classLoader);
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+
+	void createApplicationImplClass() {
+		try {
+			for (Class<?> applicationClass : applicationClasses.values()) {
+				// each application gets its own resource set, unless it already lists its classes.
+				// the in-memory resource classes are reached through getClasses() only, so that mode always overrides it.
+				boolean inherited = inheritsGetClasses(applicationClass);
+				String getClassesSource = null;
+				if (inMemory || (multiApplication && inherited)) {
+					getClassesSource = getClassesMethodSource(applicationResources.get(applicationClass.getName()), inherited);
 				}
-				return false;
-			}).collect(Collectors.toList());
-			if (allClasses == null || allClasses.isEmpty()) {
-				throw new RuntimeException("javax.ws.rs.Path is not found.");
+				GeneratedClass generated = createImplClass(classPool, applicationClass.getName(), getClassesSource);
+				defineImplClass(generated.ctClass, generated.bytes);
 			}
-			allClasses.stream().forEach(clazz -> {
-				resourceClasses.putIfAbsent(clazz.getName(), clazz);
-			});
+		} catch (CannotCompileException e) {
+			throw new RuntimeException(e);
 		} catch (IOException e) {
+			throw new RuntimeException(e);
 		}
 	}
 
-	private void createApplicationImplClass() {
-		createImplClass(applicationClass, applicationClassName, true);
-	}
-
-	private void createResourcesImplClass() {
-		resourceClasses.entrySet().stream() //
-				.forEach(entry -> {
-					createImplClass(entry.getValue(), entry.getKey(), false);
-				});
+	void createResourcesImplClass() {
+		// javassist pools are not thread-safe, so every worker gets its own.
+		ThreadLocal<ClassPool> classPools = ThreadLocal.withInitial(() -> {
+			ClassPool pool = new ClassPool(true);
+			pool.appendClassPath(new LoaderClassPath(classLoader));
+			return pool;
+		});
+		ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism);
+		List<GeneratedClass> generatedClasses;
+		try {
+			generatedClasses = forkJoinPool.submit(() -> resourceClasses.keySet().parallelStream() //
+					.map(className -> createImplClass(classPools.get(), className, null)) //
+					.collect(Collectors.toList())).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new RuntimeException(e.getCause());
+		} finally {
+			forkJoinPool.shutdown();
+		}
+		try {
+			for (GeneratedClass generated : generatedClasses) {
+				defineImplClass(generated.ctClass, generated.bytes);
+			}
+		} catch (CannotCompileException e) {
+			throw new RuntimeException(e);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
 	}
 
 	@SuppressWarnings("unchecked")
-	private void createImplClass(Class<?> clazz, String className, boolean isApp) {
-		String implClassName = className + "__CHROMOSPHERE";
-		classPool.appendClassPath(new ClassClassPath(clazz));
+	private GeneratedClass createImplClass(ClassPool classPool, String className, String getClassesSource) {
+		String implClassName = className + IMPL_CLASS_SUFFIX;
 		try {
 			CtClass ctOrigClass = classPool.get(className);
 			CtClass ctImplClass = classPool.makeClass(implClassName, ctOrigClass);
@@ -158,7 +411,7 @@ public class KumuluzeeLauncher {
 			ClassFile cfOrigClass = ctOrigClass.getClassFile();
 			ctImplClass.addConstructor(CtNewConstructor.make("public " + ctImplClass.getSimpleName() + "(){super();}", ctImplClass));
 			AnnotationsAttribute aaOrigClass = (AnnotationsAttribute) cfOrigClass.getAttribute(AnnotationsAttribute.visibleTag);
-			if (aaOrigClass.getAnnotations().length > 0) {
+			if (aaOrigClass != null && aaOrigClass.getAnnotations().length > 0) {
 				ClassFile cfImplClass = ctImplClass.getClassFile();
 				ConstPool cpImplClass = cfImplClass.getConstPool();
 				AnnotationsAttribute aaImplClass = new AnnotationsAttribute(cpImplClass, AnnotationsAttribute.visibleTag);
@@ -173,8 +426,17 @@ public class KumuluzeeLauncher {
 				}
 				cfImplClass.addAttribute(aaImplClass);
 			}
-			ctImplClass.writeFile(classesDir.getAbsolutePath());
-			ctImplClass.toClass();
+			if (getClassesSource != null) {
+				ctImplClass.addMethod(CtNewMethod.make(getClassesSource, ctImplClass));
+			}
+			Class<?> resourceClass = resourceClasses.get(className);
+			if (resourceClass != null) {
+				addResponseCache(classPool, ctOrigClass, ctImplClass, resourceClass);
+				if (metrics) {
+					addLatencyMetrics(ctOrigClass, ctImplClass, resourceClass);
+				}
+			}
+			return new GeneratedClass(ctImplClass, ctImplClass.toBytecode());
 		} catch (NotFoundException e) {
 			throw new RuntimeException(e);
 		} catch (CannotCompileException e) {
@@ -184,48 +446,380 @@ public class KumuluzeeLauncher {
 		}
 	}
 
-	private void addFiles() {
+	static void addResponseCache(ClassPool classPool, CtClass ctOrigClass, CtClass ctImplClass, Class<?> resourceClass) throws NotFoundException, CannotCompileException {
+		// sorted so that the generated bytes do not depend on reflection order.
+		List<Method> methods = Arrays.stream(resourceClass.getMethods()) //
+				.filter(method -> method.isAnnotationPresent(CachedResponse.class)) //
+				.sorted(Comparator.comparing(method -> method.getName() + RuntimeSupport.makeDescriptor(method))) //
+				.collect(Collectors.toList());
+		if (methods.isEmpty())
+			return;
+		StringBuilder ttlNanos = new StringBuilder();
+		StringBuilder maxSizes = new StringBuilder();
+		StringBuilder load = new StringBuilder("{ ");
+		for (int i = 0; i < methods.size(); i++) {
+			Method method = methods.get(i);
+			validateCachedResponse(resourceClass, method);
+			CachedResponse cachedResponse = method.getAnnotation(CachedResponse.class);
+			ttlNanos.append(i == 0 ? "" : ", ").append(cachedResponse.unit().toNanos(cachedResponse.ttl())).append("L");
+			maxSizes.append(i == 0 ? "" : ", ").append(cachedResponse.maxSize());
+			load.append("if ($1 == ").append(i).append(") return ($w) super.").append(method.getName()).append("(");
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			for (int j = 0; j < parameterTypes.length; j++) {
+				load.append(j == 0 ? "" : ", ").append(unbox(parameterTypes[j], "$2[" + j + "]"));
+			}
+			load.append("); ");
+		}
+		load.append("throw new java.lang.IllegalArgumentException(\"unknown method:[\" + $1 + \"]\"); }");
+
+		String cacheClassName = ResponseCache.class.getName();
+		ctImplClass.addInterface(classPool.get(ResponseCache.Loader.class.getName()));
+		ctImplClass.addField(CtField.make("public static final " + cacheClassName + " " + RESPONSE_CACHE_FIELD + ";", ctImplClass), //
+				"new " + cacheClassName + "(new long[] {" + ttlNanos + "}, new int[] {" + maxSizes + "})");
+		ctImplClass.addMethod(CtNewMethod.make(classPool.get("java.lang.Object"), "__chromosphere_load", //
+				new CtClass[] { CtClass.intType, classPool.get("java.lang.Object[]") }, //
+				new CtClass[] { classPool.get("java.lang.Exception") }, load.toString(), ctImplClass));
+		for (int i = 0; i < methods.size(); i++) {
+			Method method = methods.get(i);
+			CtMethod ctMethod = ctOrigClass.getMethod(method.getName(), RuntimeSupport.makeDescriptor(method));
+			// no annotations on the override, so JAX-RS keeps using the ones of the resource method.
+			ctImplClass.addMethod(CtNewMethod.make(ctMethod.getReturnType(), method.getName(), ctMethod.getParameterTypes(), ctMethod.getExceptionTypes(), //
+					"{ return ($r) " + RESPONSE_CACHE_FIELD + ".get(" + i + ", $args, this); }", ctImplClass));
+		}
+	}
+
+	static void addLatencyMetrics(CtClass ctOrigClass, CtClass ctImplClass, Class<?> resourceClass) throws NotFoundException, CannotCompileException {
+		List<Method> methods = Arrays.stream(resourceClass.getMethods()) //
+				.filter(method -> isResourceMethod(resourceClass, method) && !Modifier.isFinal(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())) //
+				.sorted(Comparator.comparing(method -> method.getName() + RuntimeSupport.makeDescriptor(method))) //
+				.collect(Collectors.toList());
+		for (int i = 0; i < methods.size(); i++) {
+			Method method = methods.get(i);
+			String descriptor = RuntimeSupport.makeDescriptor(method);
+			String histogram = "__chromosphere_latency_" + i;
+			// the descriptor keeps overloaded methods apart.
+			String endpoint = resourceClass.getName() + "#" + method.getName() + descriptor;
+			ctImplClass.addField(CtField.make("public static final " + LatencyHistogram.class.getName() + " " + histogram + ";", ctImplClass), //
+					EndpointMetrics.class.getName() + ".histogram(\"" + endpoint + "\")");
+			String call = "super." + method.getName() + "($$)";
+			CtMethod cached = declaredMethod(ctImplClass, method.getName(), descriptor);
+			if (cached != null) {
+				// the cached override moves aside, the timed one below calls it.
+				String untimed = "__chromosphere_untimed_" + i;
+				cached.setName(untimed);
+				call = untimed + "($$)";
+			}
+			CtMethod ctMethod = ctOrigClass.getMethod(method.getName(), descriptor);
+			String record = histogram + ".record(System.nanoTime() - __chromosphere_start); ";
+			StringBuilder body = new StringBuilder("{ long __chromosphere_start = System.nanoTime(); ");
+			if (method.getReturnType() == void.class) {
+				body.append("try { ").append(call).append("; } ");
+				body.append("catch (java.lang.Throwable __chromosphere_thrown) { ").append(record).append("throw __chromosphere_thrown; } ");
+				body.append(record).append("}");
+			} else {
+				body.append(typeName(method.getReturnType())).append(" __chromosphere_result = ").append(defaultValue(method.getReturnType())).append("; ");
+				body.append("try { __chromosphere_result = ").append(call).append("; } ");
+				body.append("catch (java.lang.Throwable __chromosphere_thrown) { ").append(record).append("throw __chromosphere_thrown; } ");
+				body.append(record).append("return __chromosphere_result; }");
+			}
+			ctImplClass.addMethod(CtNewMethod.make(ctMethod.getReturnType(), method.getName(), ctMethod.getParameterTypes(), ctMethod.getExceptionTypes(), //
+					body.toString(), ctImplClass));
+		}
+	}
+
+	private static CtMethod declaredMethod(CtClass ctClass, String name, String descriptor) {
+		for (CtMethod ctMethod : ctClass.getDeclaredMethods()) {
+			if (ctMethod.getName().equals(name) && ctMethod.getSignature().equals(descriptor))
+				return ctMethod;
+		}
+		return null;
+	}
+
+	private static boolean isResourceMethod(Class<?> resourceClass, Method method) {
+		Method declaration = jaxRsDeclaration(resourceClass, method.getName(), method.getParameterTypes());
+		if (declaration == null)
+			return false;
+		for (java.lang.annotation.Annotation annotation : declaration.getAnnotations()) {
+			if (annotation.annotationType().getName().equals("javax.ws.rs.Path") || hasAnnotation(annotation.annotationType().getAnnotations(), "javax.ws.rs.HttpMethod"))
+				return true;
+		}
+		return false;
+	}
+
+	// like JAX-RS, the closest declaration with any JAX-RS annotation is used, superclasses before interfaces.
+	private static Method jaxRsDeclaration(Class<?> clazz, String name, Class<?>[] parameterTypes) {
+		if (clazz == null || clazz == Object.class)
+			return null;
+		try {
+			Method declared = clazz.getDeclaredMethod(name, parameterTypes);
+			if (hasJaxRsAnnotation(declared))
+				return declared;
+		} catch (NoSuchMethodException e) {
+			// declared by a superclass or an interface.
+		}
+		Method found = jaxRsDeclaration(clazz.getSuperclass(), name, parameterTypes);
+		Class<?>[] interfaces = clazz.getInterfaces();
+		for (int i = 0; found == null && i < interfaces.length; i++) {
+			found = jaxRsDeclaration(interfaces[i], name, parameterTypes);
+		}
+		return found;
+	}
+
+	private static boolean hasJaxRsAnnotation(Method method) {
+		List<java.lang.annotation.Annotation> annotations = new ArrayList<>(Arrays.asList(method.getAnnotations()));
+		for (java.lang.annotation.Annotation[] parameterAnnotations : method.getParameterAnnotations()) {
+			annotations.addAll(Arrays.asList(parameterAnnotations));
+		}
+		return annotations.stream().anyMatch(annotation -> annotation.annotationType().getName().startsWith("javax.ws.rs.") //
+				|| hasAnnotation(annotation.annotationType().getAnnotations(), "javax.ws.rs.HttpMethod"));
+	}
+
+	private static void validateCachedResponse(Class<?> resourceClass, Method method) {
+		String name = method.getDeclaringClass().getName() + "#" + method.getName();
+		Method declaration = jaxRsDeclaration(resourceClass, method.getName(), method.getParameterTypes());
+		if (declaration == null) {
+			declaration = method;
+		}
+		if (!hasAnnotation(declaration.getAnnotations(), "javax.ws.rs.GET")) {
+			throw new RuntimeException("@CachedResponse needs @GET. method:[" + name + "]");
+		}
+		if (Modifier.isFinal(method.getModifiers()) || Modifier.isStatic(method.getModifiers())) {
+			throw new RuntimeException("@CachedResponse cannot override final or static methods. method:[" + name + "]");
+		}
+		if (method.getReturnType() == void.class || NOT_CACHEABLE.contains(method.getReturnType().getName())) {
+			throw new RuntimeException("@CachedResponse cannot cache this return type. method:[" + name + "] type:[" + method.getReturnType().getName() + "]");
+		}
+		for (java.lang.annotation.Annotation[] annotations : declaration.getParameterAnnotations()) {
+			if (!hasAnnotation(annotations, "javax.ws.rs.PathParam") && !hasAnnotation(annotations, "javax.ws.rs.QueryParam")) {
+				throw new RuntimeException("@CachedResponse is keyed by @PathParam and @QueryParam parameters only. method:[" + name + "]");
+			}
+		}
+	}
+
+	private static boolean hasAnnotation(java.lang.annotation.Annotation[] annotations, String annotationName) {
+		return Arrays.stream(annotations).anyMatch(annotation -> annotation.annotationType().getName().equals(annotationName));
+	}
+
+	private static String unbox(Class<?> type, String expression) {
+		if (!type.isPrimitive()) {
+			return "(" + typeName(type) + ") " + expression;
+		}
+		String primitive = type.getName();
+		String wrapper = type == int.class ? "Integer" : type == char.class ? "Character" : Character.toUpperCase(primitive.charAt(0)) + primitive.substring(1);
+		return "((java.lang." + wrapper + ") " + expression + ")." + primitive + "Value()";
+	}
+
+	private static String defaultValue(Class<?> type) {
+		if (!type.isPrimitive())
+			return "null";
+		return type == boolean.class ? "false" : "(" + type.getName() + ") 0";
+	}
+
+	private static String typeName(Class<?> type) {
+		return type.isArray() ? typeName(type.getComponentType()) + "[]" : type.getName();
+	}
+
+	private static boolean inheritsGetClasses(Class<?> applicationClass) {
+		try {
+			return "javax.ws.rs.core.Application".equals(applicationClass.getMethod("getClasses").getDeclaringClass().getName());
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	static String getClassesMethodSource(List<String> resourceClassNames, boolean inherited) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("public java.util.Set getClasses() { ");
+		sb.append("java.lang.ClassLoader loader = getClass().getClassLoader(); ");
+		if (inherited) {
+			sb.append("java.util.Set classes = new java.util.HashSet(); ");
+			for (String resourceClassName : resourceClassNames) {
+				sb.append("classes.add(java.lang.Class.forName(\"").append(resourceClassName).append(IMPL_CLASS_SUFFIX).append("\", true, loader)); ");
+			}
+		} else {
+			// the generated classes take the place of the resources the application lists itself.
+			sb.append("java.util.Set classes = new java.util.HashSet(super.getClasses()); ");
+			for (String resourceClassName : resourceClassNames) {
+				sb.append("if (classes.remove(java.lang.Class.forName(\"").append(resourceClassName).append("\", false, loader))) ");
+				sb.append("classes.add(java.lang.Class.forName(\"").append(resourceClassName).append(IMPL_CLASS_SUFFIX).append("\", true, loader)); ");
+			}
+		}
+		sb.append("return classes; }");
+		return sb.toString();
+	}
+
+	private void trainCds() {
+		cdsArchive.train(scanner.getClassPathEntries(), implClasses, this::fingerprint, args);
+	}
+
+	private void defineImplClass(CtClass ctImplClass, byte[] bytes) throws CannotCompileException, IOException {
+		implClasses.put(ctImplClass.getName(), bytes);
+		boolean archived = generatedJarOnClassPath && isOnClassPath(ctImplClass.getName(), bytes);
+		if (inMemory && archived) {
+			inMemoryClassLoader.addResource(ctImplClass.getName().replace('.', '/') + ".class", bytes);
+			return;
+		}
+		if (inMemory) {
+			inMemoryClassLoader.define(ctImplClass.getName(), bytes);
+			return;
+		}
+		File classFile = new File(classesDir, ctImplClass.getName().replace('.', File.separatorChar) + ".class");
+		classFile.getParentFile().mkdirs();
+		Files.write(classFile.toPath(), bytes);
+		if (archived) {
+			// the copy in the generated jar is the one held by the AppCDS archive.
+			return;
+		}
+		ctImplClass.toClass();
+	}
+
+	private boolean isOnClassPath(String className, byte[] bytes) {
+		try (InputStream in = classLoader.getResourceAsStream(className.replace('.', '/') + ".class")) {
+			return in != null && Arrays.equals(readAll(in), bytes);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	void addFiles() {
+		if (inMemory) {
+			// served by the in-memory class loader, a descriptor shipped with the application still wins.
+			inMemoryClassLoader.addResource("META-INF/beans.xml", read(BEANS_XML_ORIGINAL));
+			inMemoryClassLoader.addResource("webapp/WEB-INF/web.xml", read(WEB_XML_ORIGINAL));
+			return;
+		}
 		addFile(beansxmlDir, "beans.xml", BEANS_XML_ORIGINAL);
 		addFile(webxmlDir, "web.xml", WEB_XML_ORIGINAL);
 	}
 
 	private void addFile(File parentDir, String fileName, String resourceFileName) {
-		try (InputStream in = input(resourceFileName); OutputStream out = output(parentDir, resourceFileName);) {
-			int b;
-			while ((b = in.read()) != -1) {
-				out.write(b);
-			}
+		byte[] bytes = read(resourceFileName);
+		// an unchanged file is left alone, which keeps images prepared at build time usable read-only.
+		File file = new File(parentDir, fileName);
+		try {
+			if (file.isFile() && Arrays.equals(Files.readAllBytes(file.toPath()), bytes))
+				return;
+			Files.write(file.toPath(), bytes);
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
-	private InputStream input(String resourceFileName) {
-		return classLoader.getResourceAsStream(resourceFileName);
+	private byte[] read(String resourceFileName) {
+		try (InputStream in = classLoader.getResourceAsStream(resourceFileName)) {
+			return readAll(in);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
 	}
 
-	private OutputStream output(File parentDir, String fileName) throws IOException {
-		return new FileOutputStream(new File(parentDir, fileName));
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int n;
+		while ((n = in.read(buffer)) != -1) {
+			out.write(buffer, 0, n);
+		}
+		return out.toByteArray();
 	}
 
 	private void setClassPath() {
+		if (inMemory) {
+			Thread.currentThread().setContextClassLoader(inMemoryClassLoader);
+			return;
+		}
 		setClassPath0(classesDir);
 	}
 
 	private void setClassPath0(File file) {
+		URL url;
+		try {
+			url = file.toURI().toURL();
+		} catch (MalformedURLException e) {
+			throw new RuntimeException(e);
+		}
 		if (classLoader instanceof URLClassLoader) {
 			try {
 				Method method = URLClassLoader.class.getDeclaredMethod("addURL", URL.class);
 				method.setAccessible(true);
-				method.invoke(classLoader, file.toURI().toURL());
+				method.invoke(classLoader, url);
 				method.setAccessible(false);
+				return;
 			} catch (Throwable t) {
-				throw new RuntimeException(t);
+				// not accessible on recent JDKs, falls back to a child loader.
 			}
 		}
+		Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[] { url }, classLoader));
 	}
 
 	private void launchKumuluzEe() {
-		new EeApplication();
+		eeApplication = new EeApplication();
+		threads = EmbeddedJetty.threadPool(eeApplication);
+	}
+
+	private void serveMetrics() {
+		if (!metrics)
+			return;
+		Integer port = Integer.getInteger("chromosphere.launcher.metrics.port");
+		if (port == null) {
+			// opt-in, the histograms are still exposed as mbeans.
+			return;
+		}
+		HttpServer server = EndpointMetrics.serve(port);
+		System.out.println("endpoint metrics are served on http://127.0.0.1:" + server.getAddress().getPort() + "/metrics");
+	}
+
+	private void warmup() {
+		String requests = System.getProperty("chromosphere.launcher.warmup");
+		if (requests == null || "false".equals(requests))
+			return;
+		warmup = new Warmup(Thread.currentThread().getContextClassLoader(), port(), Integer.getInteger("chromosphere.launcher.warmup.iterations", 10));
+		List<String> classNames = new ArrayList<>(resourceClasses.keySet());
+		classNames.addAll(implClasses.keySet());
+		warmup.initialize(classNames);
+		if (!"true".equals(requests)) {
+			File file = new File(requests).isAbsolute() ? new File(requests) : new File(currentPath, requests);
+			warmup.replay(file);
+			if (warmup.getRequests() > 0 && warmup.getFailures() == warmup.getRequests()) {
+				throw new RuntimeException("all warmup requests failed. port:[" + port() + "] requests:[" + warmup.getRequests() + "]");
+			}
+			if (warmup.getFailures() > 0) {
+				System.err.println("warmup requests failed. failures:[" + warmup.getFailures() + "/" + warmup.getRequests() + "]");
+			}
+		}
+	}
+
+	private int port() {
+		// the connector knows the port actually bound, whatever configuration source kumuluzee used.
+		int localPort = EmbeddedJetty.localPort(eeApplication);
+		if (localPort > 0)
+			return localPort;
+		String port = System.getenv("PORT");
+		if (port == null) {
+			port = System.getProperty("kumuluzee.server.http.port", "8080");
+		}
+		return Integer.parseInt(port.trim());
+	}
+
+	private void ready() {
+		if (readyFile != null) {
+			try {
+				readyFile.getParentFile().mkdirs();
+				Files.write(readyFile.toPath(), new byte[0]);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		System.out.println("chromosphere launcher is ready.");
+	}
+
+	private static final class GeneratedClass {
+		private final CtClass ctClass;
+		private final byte[] bytes;
+
+		private GeneratedClass(CtClass ctClass, byte[] bytes) {
+			this.ctClass = ctClass;
+			this.bytes = bytes;
+		}
 	}
 }
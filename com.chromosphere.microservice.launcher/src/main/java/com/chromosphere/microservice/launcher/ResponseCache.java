@@ -0,0 +1,101 @@
+package com.chromosphere.microservice.launcher;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public final class ResponseCache {
+	private final Segment[] segments;
+
+	public ResponseCache(long[] ttlNanos, int[] maxSizes) {
+		segments = new Segment[ttlNanos.length];
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new Segment(ttlNanos[i], maxSizes[i]);
+		}
+	}
+
+	public Object get(int method, Object[] args, Loader loader) throws Exception {
+		return segments[method].get(method, args, loader);
+	}
+
+	public interface Loader {
+		Object __chromosphere_load(int method, Object[] args) throws Exception;
+	}
+
+	private static final class Segment {
+		private final long ttlNanos;
+		private final Map<List<Object>, Entry> entries;
+
+		@SuppressWarnings("serial")
+		private Segment(long ttlNanos, final int maxSize) {
+			this.ttlNanos = ttlNanos;
+			// access ordered, a full segment drops its least recently used entry.
+			this.entries = new LinkedHashMap<List<Object>, Entry>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<List<Object>, Entry> eldest) {
+					return size() > maxSize;
+				}
+			};
+		}
+
+		private Object get(int method, Object[] args, Loader loader) throws Exception {
+			List<Object> key = Arrays.asList(args.clone());
+			Entry entry;
+			boolean owner = false;
+			synchronized (entries) {
+				entry = entries.get(key);
+				if (entry == null || entry.isExpired(System.nanoTime())) {
+					entry = new Entry();
+					entries.put(key, entry);
+					owner = true;
+				}
+			}
+			if (!owner) {
+				// loaded, or another request is loading the same key.
+				return entry.await();
+			}
+			try {
+				Object value = loader.__chromosphere_load(method, args);
+				entry.complete(value, System.nanoTime() + ttlNanos);
+				return value;
+			} catch (Throwable t) {
+				synchronized (entries) {
+					entries.remove(key, entry);
+				}
+				entry.future.completeExceptionally(t);
+				throw t;
+			}
+		}
+	}
+
+	private static final class Entry {
+		private final CompletableFuture<Object> future = new CompletableFuture<>();
+		// set before the future completes, the ttl counts from the end of the load.
+		private long expiresAt;
+
+		private void complete(Object value, long expiresAt) {
+			this.expiresAt = expiresAt;
+			future.complete(value);
+		}
+
+		private boolean isExpired(long now) {
+			return future.isDone() && !future.isCompletedExceptionally() && now - expiresAt >= 0;
+		}
+
+		private Object await() throws Exception {
+			try {
+				return future.get();
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof Exception)
+					throw (Exception) cause;
+				if (cause instanceof Error)
+					throw (Error) cause;
+				throw e;
+			}
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package com.chromosphere.microservice.launcher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+final class ScanCache {
+	private static final String MAGIC = "chromosphere-launcher-cache/2";
+
+	private final File file;
+	private final String fingerprint;
+
+	private Map<String, List<String>> applicationResources = Collections.emptyMap();
+	private Map<String, byte[]> implClasses = Collections.emptyMap();
+
+	ScanCache(File file, String fingerprint) {
+		this.file = file;
+		this.fingerprint = fingerprint;
+	}
+
+	String getFingerprint() {
+		return fingerprint;
+	}
+
+	Map<String, List<String>> getApplicationResources() {
+		return applicationResources;
+	}
+
+	Map<String, byte[]> getImplClasses() {
+		return implClasses;
+	}
+
+	boolean load() {
+		if (!file.isFile()) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (!MAGIC.equals(in.readUTF()) || !fingerprint.equals(in.readUTF())) {
+				return false;
+			}
+			int applicationCount = in.readInt();
+			Map<String, List<String>> applicationResources = new LinkedHashMap<>();
+			for (int i = 0; i < applicationCount; i++) {
+				String applicationClassName = in.readUTF();
+				int resourceCount = in.readInt();
+				List<String> resourceClassNames = new ArrayList<>(resourceCount);
+				for (int j = 0; j < resourceCount; j++) {
+					resourceClassNames.add(in.readUTF());
+				}
+				applicationResources.put(applicationClassName, resourceClassNames);
+			}
+			int implCount = in.readInt();
+			Map<String, byte[]> implClasses = new LinkedHashMap<>();
+			for (int i = 0; i < implCount; i++) {
+				String name = in.readUTF();
+				byte[] bytes = new byte[in.readInt()];
+				in.readFully(bytes);
+				implClasses.put(name, bytes);
+			}
+			this.applicationResources = applicationResources;
+			this.implClasses = implClasses;
+			return true;
+		} catch (IOException e) {
+			// a broken cache is the same as no cache.
+			return false;
+		}
+	}
+
+	void store(Map<String, List<String>> applicationResources, Map<String, byte[]> implClasses) {
+		File tmp = new File(file.getPath() + ".tmp");
+		file.getParentFile().mkdirs();
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+			out.writeUTF(MAGIC);
+			out.writeUTF(fingerprint);
+			out.writeInt(applicationResources.size());
+			for (Map.Entry<String, List<String>> entry : applicationResources.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeInt(entry.getValue().size());
+				for (String resourceClassName : entry.getValue()) {
+					out.writeUTF(resourceClassName);
+				}
+			}
+			out.writeInt(implClasses.size());
+			for (Map.Entry<String, byte[]> entry : implClasses.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeInt(entry.getValue().length);
+				out.write(entry.getValue());
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		try {
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	static String fingerprint(List<File> classPathEntries, String packageName, Predicate<File> excluded) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		update(digest, MAGIC);
+		update(digest, String.valueOf(packageName));
+		// the AppCDS run class path lists the same entries in another order, it must still hit the cache.
+		List<File> entries = new ArrayList<>(classPathEntries);
+		Collections.sort(entries);
+		for (File entry : entries) {
+			if (excluded.test(entry))
+				continue;
+			update(digest, entry.getAbsolutePath());
+			if (entry.isDirectory()) {
+				try (Stream<Path> paths = Files.walk(entry.toPath())) {
+					List<File> files = paths.map(Path::toFile) //
+							.filter(f -> f.isFile() && !excluded.test(f)) //
+							.sorted() //
+							.collect(Collectors.toList());
+					for (File f : files) {
+						update(digest, f.getAbsolutePath() + ":" + f.length() + ":" + f.lastModified());
+					}
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			} else if (entry.isFile()) {
+				update(digest, entry.length() + ":" + entry.lastModified());
+			} else {
+				update(digest, "missing");
+			}
+		}
+		StringBuilder sb = new StringBuilder();
+		for (byte b : digest.digest()) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+}
@@ -0,0 +1,27 @@
+package com.chromosphere.microservice.launcher;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.chromosphere.launcher.StartupPhase")
+@Label("Launcher Startup Phase")
+@Category({ "Chromosphere", "Launcher" })
+@Description("One phase of KumuluzeeLauncher startup")
+final class StartupPhaseEvent extends Event {
+	@Label("Phase")
+	String phase;
+
+	@Label("Classes Loaded")
+	long classesLoaded;
+
+	@Label("Allocated")
+	@DataAmount
+	long allocatedBytes;
+
+	@Label("Success")
+	boolean success;
+}
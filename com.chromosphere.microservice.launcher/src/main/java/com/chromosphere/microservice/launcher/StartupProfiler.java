@@ -0,0 +1,190 @@
+package com.chromosphere.microservice.launcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+final class StartupProfiler {
+	private static final boolean JFR_AVAILABLE = hasClass("jdk.jfr.Event");
+
+	private final ClassLoadingMXBean classLoadingMXBean = ManagementFactory.getClassLoadingMXBean();
+	private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+	private final boolean allocationSupported = isAllocationSupported(threadMXBean);
+	private final Instant startedAt = Instant.now();
+	private final long startNanos = System.nanoTime();
+	private final List<Phase> phases = new ArrayList<>();
+	private final Map<String, Object> attributes = new LinkedHashMap<>();
+	private String failure;
+
+	void run(String name, Runnable action) {
+		call(name, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+	<T> T call(String name, Supplier<T> action) {
+		Object event = JFR_AVAILABLE ? begin() : null;
+		long classes = classLoadingMXBean.getTotalLoadedClassCount();
+		long allocated = allocatedBytes();
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			T result = action.get();
+			success = true;
+			return result;
+		} catch (RuntimeException | Error e) {
+			failure = name + ": " + e;
+			throw e;
+		} finally {
+			Phase phase = new Phase(name, System.nanoTime() - start, classLoadingMXBean.getTotalLoadedClassCount() - classes, allocatedBytes() - allocated, success);
+			phases.add(phase);
+			if (event != null) {
+				commit(event, phase);
+			}
+		}
+	}
+
+	void attribute(String name, Object value) {
+		attributes.put(name, value);
+	}
+
+	void writeReport(File file) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\n");
+		sb.append("  \"startedAt\": ").append(quote(startedAt.toString())).append(",\n");
+		sb.append("  \"totalNanos\": ").append(System.nanoTime() - startNanos).append(",\n");
+		for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+			sb.append("  ").append(quote(entry.getKey())).append(": ").append(value(entry.getValue())).append(",\n");
+		}
+		sb.append("  \"failure\": ").append(failure == null ? "null" : quote(failure)).append(",\n");
+		sb.append("  \"phases\": [");
+		for (int i = 0; i < phases.size(); i++) {
+			Phase phase = phases.get(i);
+			sb.append(i == 0 ? "\n" : ",\n");
+			sb.append("    {\"name\": ").append(quote(phase.name)) //
+					.append(", \"wallNanos\": ").append(phase.wallNanos) //
+					.append(", \"classesLoaded\": ").append(phase.classesLoaded) //
+					.append(", \"allocatedBytes\": ").append(allocationSupported ? String.valueOf(phase.allocatedBytes) : "null") //
+					.append(", \"success\": ").append(phase.success) //
+					.append("}");
+		}
+		sb.append("\n  ]\n");
+		sb.append("}\n");
+		try {
+			file.getParentFile().mkdirs();
+			Files.write(file.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			// the report must never break the startup.
+			System.err.println("could not write startup report. file:[" + file + "] " + e);
+		}
+	}
+
+	private long allocatedBytes() {
+		if (!allocationSupported) {
+			return 0L;
+		}
+		return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static Object begin() {
+		StartupPhaseEvent event = new StartupPhaseEvent();
+		event.begin();
+		return event;
+	}
+
+	private static void commit(Object o, Phase phase) {
+		StartupPhaseEvent event = (StartupPhaseEvent) o;
+		event.end();
+		if (event.shouldCommit()) {
+			event.phase = phase.name;
+			event.classesLoaded = phase.classesLoaded;
+			event.allocatedBytes = phase.allocatedBytes;
+			event.success = phase.success;
+			event.commit();
+		}
+	}
+
+	private static boolean isAllocationSupported(ThreadMXBean threadMXBean) {
+		if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+			return false;
+		}
+		com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+		return sunThreadMXBean.isThreadAllocatedMemorySupported() && sunThreadMXBean.isThreadAllocatedMemoryEnabled();
+	}
+
+	private static boolean hasClass(String className) {
+		try {
+			Class.forName(className);
+			return true;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	private static String value(Object value) {
+		if (value == null) {
+			return "null";
+		}
+		if (value instanceof Number || value instanceof Boolean) {
+			return value.toString();
+		}
+		return quote(value.toString());
+	}
+
+	private static String quote(String value) {
+		StringBuilder sb = new StringBuilder("\"");
+		for (char c : value.toCharArray()) {
+			switch (c) {
+			case '"':
+				sb.append("\\\"");
+				break;
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\r':
+				sb.append("\\r");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					sb.append(String.format("\\u%04x", (int) c));
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	private static final class Phase {
+		private final String name;
+		private final long wallNanos;
+		private final long classesLoaded;
+		private final long allocatedBytes;
+		private final boolean success;
+
+		private Phase(String name, long wallNanos, long classesLoaded, long allocatedBytes, boolean success) {
+			this.name = name;
+			this.wallNanos = wallNanos;
+			this.classesLoaded = classesLoaded;
+			this.allocatedBytes = allocatedBytes;
+			this.success = success;
+		}
+	}
+}
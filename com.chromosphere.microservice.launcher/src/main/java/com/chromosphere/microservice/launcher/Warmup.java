@@ -0,0 +1,133 @@
+package com.chromosphere.microservice.launcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+final class Warmup {
+	private final ClassLoader classLoader;
+	private final int port;
+	private final int iterations;
+	private final Set<String> failedRequests = new HashSet<>();
+	private int requests;
+	private int failures;
+
+	Warmup(ClassLoader classLoader, int port, int iterations) {
+		this.classLoader = classLoader;
+		this.port = port;
+		this.iterations = iterations;
+	}
+
+	int getRequests() {
+		return requests;
+	}
+
+	int getFailures() {
+		return failures;
+	}
+
+	void initialize(Collection<String> classNames) {
+		for (String className : classNames) {
+			try {
+				Class.forName(className, true, classLoader);
+			} catch (Throwable e) {
+				System.err.println("could not initialize class. class:[" + className + "] " + e);
+			}
+		}
+	}
+
+	void replay(File file) {
+		List<Request> list = parse(file);
+		for (int i = 0; i < iterations; i++) {
+			for (Request request : list) {
+				requests++;
+				String failure = send(request);
+				if (failure != null) {
+					failures++;
+					// once per request, the iterations would repeat the same warning.
+					if (failedRequests.add(request.method + " " + request.path)) {
+						System.err.println("warmup request failed. request:[" + request.method + " " + request.path + "] " + failure);
+					}
+				}
+			}
+		}
+	}
+
+	// returns why the request failed, or null when it succeeded.
+	private String send(Request request) {
+		HttpURLConnection connection = null;
+		try {
+			connection = (HttpURLConnection) new URL("http", "127.0.0.1", port, request.path).openConnection();
+			connection.setRequestMethod(request.method);
+			connection.setConnectTimeout(5000);
+			connection.setReadTimeout(30000);
+			if (request.body != null) {
+				connection.setDoOutput(true);
+				connection.setRequestProperty("Content-Type", "application/json");
+				try (OutputStream out = connection.getOutputStream()) {
+					out.write(request.body.getBytes(StandardCharsets.UTF_8));
+				}
+			}
+			int status = connection.getResponseCode();
+			// the body is drained so that the whole response path is exercised.
+			try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+				if (in != null) {
+					byte[] buffer = new byte[8192];
+					while (in.read(buffer) != -1) {
+					}
+				}
+			}
+			// a 404 or 405 only warms up the error path, so only 2xx and 3xx count.
+			return status >= 200 && status < 400 ? null : "status:[" + status + "]";
+		} catch (IOException e) {
+			return e.toString();
+		} finally {
+			if (connection != null) {
+				connection.disconnect();
+			}
+		}
+	}
+
+	private static List<Request> parse(File file) {
+		List<String> lines;
+		try {
+			lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		List<Request> list = new ArrayList<>();
+		for (String line : lines) {
+			String trimmed = line.trim();
+			if (trimmed.isEmpty() || trimmed.startsWith("#"))
+				continue;
+			String[] parts = trimmed.split("\\s+", 3);
+			if (parts.length < 2 || !parts[1].startsWith("/")) {
+				throw new RuntimeException("invalid warmup request. line:[" + line + "]");
+			}
+			list.add(new Request(parts[0].toUpperCase(), parts[1], parts.length == 3 ? parts[2] : null));
+		}
+		return list;
+	}
+
+	private static final class Request {
+		private final String method;
+		private final String path;
+		private final String body;
+
+		private Request(String method, String path, String body) {
+			this.method = method;
+			this.path = path;
+			this.body = body;
+		}
+	}
+}
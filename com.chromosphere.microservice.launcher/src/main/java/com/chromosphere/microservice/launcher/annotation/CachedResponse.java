@@ -0,0 +1,21 @@
+package com.chromosphere.microservice.launcher.annotation;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+@Documented
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface CachedResponse {
+
+	long ttl() default 60;
+
+	TimeUnit unit() default TimeUnit.SECONDS;
+
+	int maxSize() default 1000;
+}
@@ -0,0 +1,44 @@
+package com.chromosphere.microservice.launcher.metrics;
+
+public class EndpointLatency implements EndpointLatencyMBean {
+	private final LatencyHistogram histogram;
+
+	EndpointLatency(LatencyHistogram histogram) {
+		this.histogram = histogram;
+	}
+
+	@Override
+	public long getCount() {
+		return histogram.snapshot().getCount();
+	}
+
+	@Override
+	public double getMeanMicros() {
+		return histogram.snapshot().getMeanMicros();
+	}
+
+	@Override
+	public long getMaxMicros() {
+		return histogram.snapshot().getMaxMicros();
+	}
+
+	@Override
+	public long getP50Micros() {
+		return histogram.snapshot().percentileMicros(50.0);
+	}
+
+	@Override
+	public long getP90Micros() {
+		return histogram.snapshot().percentileMicros(90.0);
+	}
+
+	@Override
+	public long getP99Micros() {
+		return histogram.snapshot().percentileMicros(99.0);
+	}
+
+	@Override
+	public long getP999Micros() {
+		return histogram.snapshot().percentileMicros(99.9);
+	}
+}
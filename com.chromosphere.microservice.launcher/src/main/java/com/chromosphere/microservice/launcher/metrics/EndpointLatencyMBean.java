@@ -0,0 +1,17 @@
+package com.chromosphere.microservice.launcher.metrics;
+
+public interface EndpointLatencyMBean {
+	long getCount();
+
+	double getMeanMicros();
+
+	long getMaxMicros();
+
+	long getP50Micros();
+
+	long getP90Micros();
+
+	long getP99Micros();
+
+	long getP999Micros();
+}
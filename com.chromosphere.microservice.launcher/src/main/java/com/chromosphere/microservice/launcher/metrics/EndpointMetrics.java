@@ -0,0 +1,100 @@
+package com.chromosphere.microservice.launcher.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public final class EndpointMetrics {
+	private static final String DOMAIN = "com.chromosphere.launcher";
+	private static final ConcurrentMap<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+	private EndpointMetrics() {
+	}
+
+	public static LatencyHistogram histogram(String endpoint) {
+		return HISTOGRAMS.computeIfAbsent(endpoint, k -> register(k, new LatencyHistogram()));
+	}
+
+	public static HttpServer serve(int port) {
+		try {
+			// local only, the endpoint has no authentication.
+			HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+			server.createContext("/metrics", EndpointMetrics::handle);
+			// daemon threads only, the endpoint must never keep the jvm alive.
+			server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "chromosphere-metrics");
+				thread.setDaemon(true);
+				return thread;
+			}));
+			// the dispatcher thread takes the daemon flag of the thread that starts the server.
+			Thread starter = new Thread(server::start, "chromosphere-metrics-start");
+			starter.setDaemon(true);
+			starter.start();
+			starter.join();
+			return server;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static void handle(HttpExchange exchange) throws IOException {
+		byte[] bytes = toJson().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	static String toJson() {
+		StringBuilder sb = new StringBuilder("{\n  \"endpoints\": [");
+		boolean first = true;
+		for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(HISTOGRAMS).entrySet()) {
+			LatencyHistogram.Snapshot snapshot = entry.getValue().snapshot();
+			sb.append(first ? "\n" : ",\n");
+			sb.append("    {\"endpoint\": \"").append(escape(entry.getKey())).append("\"");
+			sb.append(", \"count\": ").append(snapshot.getCount());
+			sb.append(", \"meanMicros\": ").append(String.format(Locale.ROOT, "%.1f", snapshot.getMeanMicros()));
+			sb.append(", \"p50Micros\": ").append(snapshot.percentileMicros(50.0));
+			sb.append(", \"p90Micros\": ").append(snapshot.percentileMicros(90.0));
+			sb.append(", \"p99Micros\": ").append(snapshot.percentileMicros(99.0));
+			sb.append(", \"p999Micros\": ").append(snapshot.percentileMicros(99.9));
+			sb.append(", \"maxMicros\": ").append(snapshot.getMaxMicros()).append("}");
+			first = false;
+		}
+		sb.append(first ? "]\n}\n" : "\n  ]\n}\n");
+		return sb.toString();
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+	private static LatencyHistogram register(String endpoint, LatencyHistogram histogram) {
+		try {
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			mBeanServer.registerMBean(new EndpointLatency(histogram), new ObjectName(String.format("%s:type=Endpoint,name=%s", DOMAIN, ObjectName.quote(endpoint))));
+		} catch (Exception e) {
+			System.err.println("could not register mbean. name:[" + endpoint + "] " + e);
+		}
+		return histogram;
+	}
+}
@@ -0,0 +1,119 @@
+package com.chromosphere.microservice.launcher.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public final class LatencyHistogram {
+	// log-linear buckets over microseconds: 16 linear sub-buckets per power of two, about 6% relative error.
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 40;
+	private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+	private static final int COUNT = BUCKETS;
+	private static final int SUM = BUCKETS + 1;
+	private static final int MAX = BUCKETS + 2;
+	private static final int STRIPES = Integer.highestOneBit(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 16)));
+
+	// stripes are allocated on first use, so that quiet endpoints keep a single one.
+	private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+
+	public void record(long nanos) {
+		long micros = Math.max(0L, nanos / 1000L);
+		AtomicLongArray stripe = stripe();
+		stripe.incrementAndGet(bucket(micros));
+		stripe.incrementAndGet(COUNT);
+		stripe.addAndGet(SUM, micros);
+		long max;
+		while (micros > (max = stripe.get(MAX)) && !stripe.compareAndSet(MAX, max, micros)) {
+		}
+	}
+
+	public Snapshot snapshot() {
+		long[] counts = new long[BUCKETS];
+		long count = 0L;
+		long sum = 0L;
+		long max = 0L;
+		for (int i = 0; i < STRIPES; i++) {
+			AtomicLongArray stripe = stripes.get(i);
+			if (stripe == null)
+				continue;
+			for (int j = 0; j < BUCKETS; j++) {
+				counts[j] += stripe.get(j);
+			}
+			count += stripe.get(COUNT);
+			sum += stripe.get(SUM);
+			max = Math.max(max, stripe.get(MAX));
+		}
+		return new Snapshot(counts, count, sum, max);
+	}
+
+	private AtomicLongArray stripe() {
+		int index = (int) (Thread.currentThread().getId() * 0x9E3779B9L >>> 16) & (STRIPES - 1);
+		AtomicLongArray stripe = stripes.get(index);
+		if (stripe == null) {
+			stripes.compareAndSet(index, null, new AtomicLongArray(BUCKETS + 3));
+			stripe = stripes.get(index);
+		}
+		return stripe;
+	}
+
+	static int bucket(long micros) {
+		if (micros < SUB_BUCKETS)
+			return (int) micros;
+		int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+		int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		int subBucket = bucket % SUB_BUCKETS;
+		long width = 1L << (exponent - SUB_BUCKET_BITS);
+		return (1L << exponent) + (subBucket + 1) * width - 1;
+	}
+
+	public static final class Snapshot {
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		private Snapshot(long[] counts, long count, long sum, long max) {
+			this.counts = counts;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public double getMeanMicros() {
+			return count == 0 ? 0.0 : (double) sum / count;
+		}
+
+		public long getMaxMicros() {
+			return max;
+		}
+
+		public long percentileMicros(double percentile) {
+			long total = 0L;
+			for (long c : counts) {
+				total += c;
+			}
+			if (total == 0)
+				return 0L;
+			long rank = (long) Math.ceil(total * percentile / 100.0);
+			long seen = 0L;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank)
+					return Math.min(upperBound(i), max);
+			}
+			return max;
+		}
+	}
+}
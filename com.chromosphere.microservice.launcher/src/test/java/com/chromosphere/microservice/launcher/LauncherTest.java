@@ -0,0 +1,210 @@
+package com.chromosphere.microservice.launcher;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.core.Application;
+
+import org.junit.Test;
+
+import com.chromosphere.microservice.launcher.ClassFileScanner.ClassFileInfo;
+import com.chromosphere.microservice.launcher.metrics.EndpointMetrics;
+import com.chromosphere.microservice.launcher.test.dto.Test00Resource;
+import com.chromosphere.microservice.launcher.test.dto.Test01Base;
+import com.chromosphere.microservice.launcher.test.dto.Test01Child;
+import com.chromosphere.microservice.launcher.test.dto.Test01Impl;
+import com.chromosphere.microservice.launcher.test.dto.Test02Application;
+import com.sun.net.httpserver.HttpServer;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.LoaderClassPath;
+
+public class LauncherTest {
+	@Test
+	public void test00() throws Exception {
+		ClassPool classPool = new ClassPool(true);
+		classPool.appendClassPath(new LoaderClassPath(getClass().getClassLoader()));
+		CtClass ctOrigClass = classPool.get(Test00Resource.class.getName());
+		CtClass ctImplClass = classPool.makeClass(Test00Resource.class.getName() + "__CHROMOSPHERE", ctOrigClass);
+		ctImplClass.addConstructor(CtNewConstructor.defaultConstructor(ctImplClass));
+		KumuluzeeLauncher.addResponseCache(classPool, ctOrigClass, ctImplClass, Test00Resource.class);
+		KumuluzeeLauncher.addLatencyMetrics(ctOrigClass, ctImplClass, Test00Resource.class);
+		Class<?> implClass = define(ctImplClass);
+		Test00Resource resource = (Test00Resource) implClass.newInstance();
+
+		assertEquals("get:a", resource.get("a"));
+		assertEquals("get:a:2", resource.get("a", 2));
+		assertEquals("get:b:3", resource.get("b", 3));
+		assertEquals(3L, resource.size());
+		resource.put("value");
+		try {
+			resource.put(null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("value", e.getMessage());
+		}
+		assertEquals("x:1", resource.cached("x"));
+		assertEquals("x:1", resource.cached("x"));
+		assertEquals("plain", resource.notResource());
+
+		String prefix = Test00Resource.class.getName() + "#";
+		assertEquals(1L, count(prefix + "get(Ljava/lang/String;)Ljava/lang/String;"));
+		assertEquals(2L, count(prefix + "get(Ljava/lang/String;I)Ljava/lang/String;"));
+		assertEquals(1L, count(prefix + "size()J"));
+		assertEquals(2L, count(prefix + "put(Ljava/lang/String;)V"));
+		assertEquals(2L, count(prefix + "cached(Ljava/lang/String;)Ljava/lang/String;"));
+		assertEquals(Test00Resource.class, implClass.getMethod("notResource").getDeclaringClass());
+	}
+
+	@Test
+	public void test01() throws Exception {
+		ClassFileScanner scanner = new ClassFileScanner(getClass().getClassLoader(), "__CHROMOSPHERE", new File("target", "none.jar"));
+		Map<String, ClassFileInfo> classes = scanner.scan(Test01Base.class.getPackage().getName(), true, KumuluzeeLauncher.ANNOTATIONS);
+		assertTrue(KumuluzeeLauncher.isResource(classes.get(Test01Base.class.getName()), classes));
+		// a class level @Path is not inherited.
+		assertFalse(KumuluzeeLauncher.isResource(classes.get(Test01Child.class.getName()), classes));
+		assertTrue(KumuluzeeLauncher.isResource(classes.get(Test01Impl.class.getName()), classes));
+		assertTrue(KumuluzeeLauncher.isResource(classes.get(Test00Resource.class.getName()), classes));
+	}
+
+	@Test
+	public void test02() throws Exception {
+		System.setProperty("chromosphere.launcher.inmemory", "true");
+		System.setProperty("chromosphere.launcher.applications", Test02Application.class.getName());
+		try {
+			KumuluzeeLauncher launcher = new KumuluzeeLauncher(new String[0]);
+			launcher.initialize();
+			launcher.scanApplication();
+			launcher.scanResources();
+			launcher.createResourcesImplClass();
+			launcher.createApplicationImplClass();
+			launcher.addFiles();
+			InMemoryClassLoader loader = launcher.inMemoryClassLoader;
+			Application application = (Application) loader.loadClass(Test02Application.class.getName() + "__CHROMOSPHERE").newInstance();
+			Set<String> names = new HashSet<>();
+			for (Class<?> clazz : application.getClasses()) {
+				// served from memory, not from a class file under target/classes.
+				assertSame(loader, clazz.getClassLoader());
+				names.add(clazz.getName());
+			}
+			assertTrue(names.contains(Test00Resource.class.getName() + "__CHROMOSPHERE"));
+			assertTrue(names.contains(Test01Impl.class.getName() + "__CHROMOSPHERE"));
+			assertFalse(names.contains(Test01Child.class.getName() + "__CHROMOSPHERE"));
+			assertNotNull(loader.getResource("META-INF/beans.xml"));
+
+			Class<?> implClass = loader.loadClass(Test00Resource.class.getName() + "__CHROMOSPHERE");
+			Test00Resource resource = (Test00Resource) implClass.newInstance();
+			assertEquals(resource.cached("y"), resource.cached("y"));
+		} finally {
+			System.clearProperty("chromosphere.launcher.inmemory");
+			System.clearProperty("chromosphere.launcher.applications");
+		}
+	}
+
+	@Test
+	public void test03() throws Exception {
+		// the ttl counts from the end of the load, so a load slower than the ttl still runs once.
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		ResponseCache slow = new ResponseCache(new long[] { TimeUnit.MILLISECONDS.toNanos(200) }, new int[] { 10 });
+		ResponseCache.Loader slowLoader = (method, args) -> {
+			started.countDown();
+			Thread.sleep(300);
+			return args[0] + ":" + loads.incrementAndGet();
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> first = executor.submit(() -> slow.get(0, new Object[] { "a" }, slowLoader));
+			started.await();
+			Thread.sleep(250);
+			Future<Object> second = executor.submit(() -> slow.get(0, new Object[] { "a" }, slowLoader));
+			assertEquals("a:1", first.get());
+			assertEquals("a:1", second.get());
+			assertEquals(1, loads.get());
+		} finally {
+			executor.shutdown();
+		}
+
+		// a full segment drops the least recently used entry.
+		AtomicInteger counter = new AtomicInteger();
+		ResponseCache lru = new ResponseCache(new long[] { TimeUnit.MINUTES.toNanos(1) }, new int[] { 2 });
+		ResponseCache.Loader loader = (method, args) -> args[0] + ":" + counter.incrementAndGet();
+		assertEquals("a:1", lru.get(0, new Object[] { "a" }, loader));
+		assertEquals("b:2", lru.get(0, new Object[] { "b" }, loader));
+		assertEquals("a:1", lru.get(0, new Object[] { "a" }, loader));
+		assertEquals("c:3", lru.get(0, new Object[] { "c" }, loader));
+		assertEquals("a:1", lru.get(0, new Object[] { "a" }, loader));
+		assertEquals("b:4", lru.get(0, new Object[] { "b" }, loader));
+	}
+
+	@Test
+	public void test04() throws Exception {
+		// the JAX-RS annotations of an interface or superclass method make the override a resource method too.
+		ClassPool classPool = new ClassPool(true);
+		classPool.appendClassPath(new LoaderClassPath(getClass().getClassLoader()));
+		CtClass ctOrigClass = classPool.get(Test01Impl.class.getName());
+		CtClass ctImplClass = classPool.makeClass(Test01Impl.class.getName() + "__CHROMOSPHERE", ctOrigClass);
+		ctImplClass.addConstructor(CtNewConstructor.defaultConstructor(ctImplClass));
+		KumuluzeeLauncher.addLatencyMetrics(ctOrigClass, ctImplClass, Test01Impl.class);
+		Test01Impl impl = (Test01Impl) define(ctImplClass).newInstance();
+		assertEquals("impl", impl.api());
+		assertEquals(1L, count(Test01Impl.class.getName() + "#api()Ljava/lang/String;"));
+
+		ctOrigClass = classPool.get(Test01Child.class.getName());
+		ctImplClass = classPool.makeClass(Test01Child.class.getName() + "__CHROMOSPHERE", ctOrigClass);
+		ctImplClass.addConstructor(CtNewConstructor.defaultConstructor(ctImplClass));
+		KumuluzeeLauncher.addLatencyMetrics(ctOrigClass, ctImplClass, Test01Child.class);
+		Test01Child child = (Test01Child) define(ctImplClass).newInstance();
+		assertEquals("base", child.get());
+		assertEquals(1L, count(Test01Child.class.getName() + "#get()Ljava/lang/String;"));
+	}
+
+	@Test
+	public void test05() throws Exception {
+		Set<Thread> before = Thread.getAllStackTraces().keySet();
+		HttpServer server = EndpointMetrics.serve(0);
+		try {
+			HttpURLConnection connection = (HttpURLConnection) new URL("http", "127.0.0.1", server.getAddress().getPort(), "/metrics").openConnection();
+			assertEquals(200, connection.getResponseCode());
+			connection.disconnect();
+			// the endpoint must not keep the jvm alive.
+			for (Thread thread : Thread.getAllStackTraces().keySet()) {
+				if (!before.contains(thread) && thread.isAlive())
+					assertTrue(thread.getName(), thread.isDaemon());
+			}
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	private static long count(String endpoint) {
+		return EndpointMetrics.histogram(endpoint).snapshot().getCount();
+	}
+
+	private static Class<?> define(CtClass ctClass) throws Exception {
+		final byte[] bytes = ctClass.toBytecode();
+		final String name = ctClass.getName();
+		return new ClassLoader(LauncherTest.class.getClassLoader()) {
+			@Override
+			protected Class<?> findClass(String className) throws ClassNotFoundException {
+				if (!className.equals(name))
+					throw new ClassNotFoundException(className);
+				return defineClass(name, bytes, 0, bytes.length);
+			}
+		}.loadClass(name);
+	}
+}
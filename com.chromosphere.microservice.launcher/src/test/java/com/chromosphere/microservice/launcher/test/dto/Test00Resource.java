@@ -0,0 +1,51 @@
+package com.chromosphere.microservice.launcher.test.dto;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+import com.chromosphere.microservice.launcher.annotation.CachedResponse;
+
+@Path("/test00")
+public class Test00Resource {
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@GET
+	@Path("{id}")
+	public String get(@PathParam("id") String id) {
+		return "get:" + id;
+	}
+
+	@GET
+	@Path("{id}/{count}")
+	public String get(@PathParam("id") String id, @PathParam("count") int count) {
+		return "get:" + id + ":" + count;
+	}
+
+	@GET
+	@Path("size")
+	public long size() {
+		return 3L;
+	}
+
+	@POST
+	public void put(String value) {
+		if (value == null)
+			throw new IllegalArgumentException("value");
+	}
+
+	@GET
+	@Path("cached/{id}")
+	@CachedResponse(ttl = 1, unit = TimeUnit.MINUTES, maxSize = 10)
+	public String cached(@PathParam("id") String id) {
+		return id + ":" + loads.incrementAndGet();
+	}
+
+	public String notResource() {
+		return "plain";
+	}
+}
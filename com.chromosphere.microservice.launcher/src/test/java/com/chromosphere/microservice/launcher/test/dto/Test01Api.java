@@ -0,0 +1,10 @@
+package com.chromosphere.microservice.launcher.test.dto;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+public interface Test01Api {
+	@GET
+	@Path("/test01/api")
+	String api();
+}
@@ -0,0 +1,12 @@
+package com.chromosphere.microservice.launcher.test.dto;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+@Path("/test01")
+public class Test01Base {
+	@GET
+	public String get() {
+		return "base";
+	}
+}
@@ -0,0 +1,4 @@
+package com.chromosphere.microservice.launcher.test.dto;
+
+public class Test01Child extends Test01Base {
+}
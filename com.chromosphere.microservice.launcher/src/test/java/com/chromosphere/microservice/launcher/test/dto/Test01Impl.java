@@ -0,0 +1,8 @@
+package com.chromosphere.microservice.launcher.test.dto;
+
+public class Test01Impl implements Test01Api {
+	@Override
+	public String api() {
+		return "impl";
+	}
+}
@@ -0,0 +1,8 @@
+package com.chromosphere.microservice.launcher.test.dto;
+
+import javax.ws.rs.ApplicationPath;
+import javax.ws.rs.core.Application;
+
+@ApplicationPath("/test02")
+public class Test02Application extends Application {
+}